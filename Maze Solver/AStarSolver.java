@@ -0,0 +1,174 @@
+import java.util.Arrays;
+import java.util.List;
+
+/* A* AND GREEDY BEST-FIRST SEARCH */
+// Always expands the open cell with the lowest estimated total cost:
+//   A*:     cost so far + heuristic (shortest path if the heuristic never overestimates; when it is
+//           not also consistent, a closed cell can be reached more cheaply later and is reopened)
+//   greedy: heuristic only (usually expands fewer cells, but the path may be longer)
+// Ties are broken towards the cell closer to the end. Cells are kept in a primitive
+// IntMinHeap keyed on cell index, and all arrays are reused between solves.
+public class AStarSolver implements GridSolver {
+    private final Heuristic heuristic;
+    private final boolean greedy;
+    private final IntMinHeap open = new IntMinHeap();
+    private int[] parent = new int[0]; // parent[cell] = cell it was reached from
+    private int[] cost = new int[0];   // steps from the start (valid once seen)
+    private long[] seen = new long[0]; // bitset: cell has been added to the heap
+    private long[] closed = new long[0]; // bitset: cell has been expanded
+    private int expandedCount;
+    private int visitedCount;
+    private int maxFrontier;
+    private long reconstructNanos;
+    private SearchEvents events; // null unless a SearchListener is set
+
+    // A* with the Manhattan heuristic
+    public AStarSolver() {
+        this(Heuristic.MANHATTAN, false);
+    }
+
+    public AStarSolver(Heuristic heuristic, boolean greedy) {
+        this.heuristic = heuristic;
+        this.greedy = greedy;
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        List<MazeSolver.Position> path = search(grid)
+                ? MazeSolver.reconstructPath(parent, grid.start(), grid.end(), grid.cols(), nanos -> reconstructNanos = nanos)
+                : null;
+        if (events != null) events.flush();
+        return path;
+    }
+
+    @Override
+    public int solveInto(MazeGrid grid, PathSink sink) {
+        int steps = search(grid)
+                ? MazeSolver.streamPath(parent, grid.start(), grid.end(), sink, nanos -> reconstructNanos = nanos)
+                : -1;
+        if (events != null) events.flush();
+        return steps;
+    }
+
+    private boolean search(MazeGrid grid) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        int start = grid.start();
+        int end = grid.end();
+        if (start < 0 || end < 0) {
+            return false; // invalid maze
+        }
+
+        int rows = grid.rows();
+        int cols = grid.cols();
+        int cells = rows * cols;
+        ensureCapacity(cells);
+        int words = (cells + 63) >>> 6;
+        Arrays.fill(seen, 0, words, 0L);
+        Arrays.fill(closed, 0, words, 0L);
+        open.reset(cells);
+
+        int endRow = end / cols;
+        int endCol = end % cols;
+
+        cost[start] = 0;
+        parent[start] = start;
+        seen[start >>> 6] |= 1L << start;
+        visitedCount = 1;
+        if (events != null) events.frontier(start);
+        open.add(start, key(0, heuristic.estimate(start / cols, start % cols, endRow, endCol)));
+        maxFrontier = 1;
+
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if ((++expandedCount & (CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            if (events != null) events.expanded(current);
+            if (current == end) {
+                return true;
+            }
+            closed[current >>> 6] |= 1L << current;
+
+            int row = current / cols;
+            int col = current - row * cols;
+            int nextCost = cost[current] + 1;
+
+            // up, right, down, left
+            if (row > 0) relax(grid, current, current - cols, row - 1, col, nextCost, endRow, endCol);
+            if (col + 1 < cols) relax(grid, current, current + 1, row, col + 1, nextCost, endRow, endCol);
+            if (row + 1 < rows) relax(grid, current, current + cols, row + 1, col, nextCost, endRow, endCol);
+            if (col > 0) relax(grid, current, current - 1, row, col - 1, nextCost, endRow, endCol);
+            if (open.size() > maxFrontier) maxFrontier = open.size();
+        }
+
+        return false; // no path found
+    }
+
+    // adds the neighbour to the heap, or (A* only) lowers its key if this way is shorter; a closed
+    // cell reached more cheaply goes back into the heap
+    private void relax(MazeGrid grid, int from, int next, int row, int col, int nextCost, int endRow, int endCol) {
+        if (!grid.isOpen(next)) {
+            return;
+        }
+        boolean isNew = (seen[next >>> 6] & (1L << next)) == 0;
+        if (!isNew && (greedy || nextCost >= cost[next])) {
+            return;
+        }
+
+        cost[next] = nextCost;
+        parent[next] = from;
+        long key = key(nextCost, heuristic.estimate(row, col, endRow, endCol));
+        if (isNew) {
+            seen[next >>> 6] |= 1L << next;
+            visitedCount++;
+            if (events != null) events.frontier(next);
+            open.add(next, key);
+        } else if ((closed[next >>> 6] & (1L << next)) != 0) {
+            closed[next >>> 6] &= ~(1L << next); // reopened
+            open.add(next, key);
+        } else {
+            open.decreaseKey(next, key);
+        }
+    }
+
+    // priority first, then the heuristic as a tie-breaker (prefer cells closer to the end)
+    private long key(int costSoFar, int estimate) {
+        int priority = greedy ? estimate : costSoFar + estimate;
+        return ((long) priority << 32) | estimate;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    private void ensureCapacity(int cells) {
+        if (parent.length < cells) {
+            parent = new int[cells];
+            cost = new int[cells];
+            seen = new long[(cells + 63) >>> 6];
+            closed = new long[(cells + 63) >>> 6];
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/* ALGORITHM CHOICES */
+// Every solver the CLI menu and the GUI dropdown can pick from, in menu order.
+public enum Algorithm {
+    BFS("BFS (Queue)", "Breadth-First Search (Queue)") {
+        @Override
+        public GridSolver newSolver() {
+            return new PrimitiveSolver(true);
+        }
+    },
+    DFS("DFS (Stack)", "Depth-First Search (Stack)") {
+        @Override
+        public GridSolver newSolver() {
+            return new PrimitiveSolver(false);
+        }
+    },
+    PARALLEL_BFS("Parallel BFS", "Parallel Breadth-First Search (ForkJoinPool, large mazes)") {
+        @Override
+        public GridSolver newSolver() {
+            return new ParallelBfsSolver();
+        }
+    },
+    BIT_PARALLEL_BFS("Bit-parallel BFS", "Bit-Parallel Breadth-First Search (64 cells per word operation)") {
+        @Override
+        public GridSolver newSolver() {
+            return new BitParallelBfsSolver();
+        }
+    },
+    BIDIRECTIONAL_BFS("Bidirectional BFS", "Bidirectional Breadth-First Search (from S and E)") {
+        @Override
+        public GridSolver newSolver() {
+            return new BidirectionalBfsSolver();
+        }
+    },
+    A_STAR("A* (Manhattan)", "A* Search (Manhattan heuristic)") {
+        @Override
+        public GridSolver newSolver() {
+            return new AStarSolver(Heuristic.MANHATTAN, false);
+        }
+    },
+    GREEDY("Greedy Best-First", "Greedy Best-First Search (Manhattan heuristic)") {
+        @Override
+        public GridSolver newSolver() {
+            return new AStarSolver(Heuristic.MANHATTAN, true);
+        }
+    },
+    JUMP_POINT("Jump Point Search", "Jump Point Search (A* over jump points, open mazes)") {
+        @Override
+        public GridSolver newSolver() {
+            return new JumpPointSolver();
+        }
+    },
+    DIJKSTRA("Dijkstra (weighted)", "Dijkstra's Algorithm (weighted cells 1-9, bucket queue)") {
+        @Override
+        public GridSolver newSolver() {
+            return new DijkstraSolver();
+        }
+    },
+    JUNCTION("Junction graph", "Junction Graph Search (corridors contracted, A* over junctions)") {
+        @Override
+        public GridSolver newSolver() {
+            return new JunctionSolver();
+        }
+    };
+
+    private final String label;       // short name for the GUI dropdown and status messages
+    private final String description; // longer name for the CLI menu
+
+    Algorithm(String label, String description) {
+        this.label = label;
+        this.description = description;
+    }
+
+    // creates a fresh solver (solvers keep scratch arrays, so reuse one per thread)
+    public abstract GridSolver newSolver();
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
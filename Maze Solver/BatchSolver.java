@@ -0,0 +1,313 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/* BATCH (HEADLESS) SOLVE MODE */
+// Solves many maze files on a fixed pool of worker threads and writes one result line per maze
+// (path length and the SolverMetrics of the solve).
+//
+//   java MazeSolver batch [--algorithm BFS] [--threads N] [--parallelism N] [--format jsonl|csv] [--out results.jsonl] [--cache] [--moves] <dir | ->
+//
+// <dir> solves every file (text or binary) in the directory; "-" reads maze file paths from standard input, one per line.
+// Files are listed lazily and only (threads * 2) mazes are waiting or being solved at any time: when
+// that many are in flight, the reader blocks until a worker finishes (backpressure), so memory stays
+// flat no matter how many mazes are queued. Each worker thread keeps its own solver, so scratch
+// arrays are reused between mazes. Result lines come out in completion order.
+// With --cache, mazes whose walls, start and end were already solved (e.g. the same seed generated
+// twice) take their path from the shared SolveCache; their lines get "cached": true and no search
+// metrics, and the cache hit/miss statistics are printed to standard error at the end.
+// --parallelism sets the threads of each PARALLEL_BFS solve (see ParallelBfsSolver.defaultParallelism).
+// With --moves, every line also gets the path as a run-length move string ("moves", see
+// RunLengthPath), streamed out of the solver without building the path list.
+public class BatchSolver {
+    private final Algorithm algorithm;
+    private final int threads;
+    private final boolean csv;
+    private final ThreadLocal<GridSolver> solvers;
+    private final SolveCache cache; // null: every maze is solved
+    private boolean writeMoves;
+
+    public BatchSolver(Algorithm algorithm, int threads, boolean csv) {
+        this(algorithm, threads, csv, null);
+    }
+
+    public BatchSolver(Algorithm algorithm, int threads, boolean csv, SolveCache cache) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.algorithm = algorithm;
+        this.threads = threads;
+        this.csv = csv;
+        this.solvers = ThreadLocal.withInitial(algorithm::newSolver);
+        this.cache = cache;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Algorithm algorithm = Algorithm.BFS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean csv = false;
+        boolean useCache = false;
+        boolean moves = false;
+        String out = null;
+        String input = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--algorithm":
+                        String name = args[++i];
+                        try {
+                            algorithm = Algorithm.valueOf(name.toUpperCase(Locale.ROOT));
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException("unknown algorithm " + name);
+                        }
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--parallelism":
+                        ParallelBfsSolver.setDefaultParallelism(Integer.parseInt(args[++i]));
+                        break;
+                    case "--format":
+                        String format = args[++i].toLowerCase(Locale.ROOT);
+                        if (!format.equals("jsonl") && !format.equals("csv")) {
+                            throw new IllegalArgumentException("unknown format " + format);
+                        }
+                        csv = format.equals("csv");
+                        break;
+                    case "--out":
+                        out = args[++i];
+                        break;
+                    case "--cache":
+                        useCache = true;
+                        break;
+                    case "--moves":
+                        moves = true;
+                        break;
+                    default:
+                        // "-" (standard input) is the only argument starting with "-" that isn't an option
+                        if ((args[i].startsWith("-") && !args[i].equals("-")) || input != null) {
+                            throw new IllegalArgumentException("unexpected argument " + args[i]);
+                        }
+                        input = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            // an option without its value, an unknown option, algorithm or format, a bad number or a second input
+            if (e instanceof NumberFormatException) {
+                System.err.println("not a number: " + e.getMessage());
+            } else if (e instanceof IllegalArgumentException) {
+                System.err.println(e.getMessage());
+            }
+            input = null;
+        }
+        if (input == null || threads < 1) {
+            System.err.println("Usage: java MazeSolver batch [--algorithm BFS] [--threads N] [--parallelism N] "
+                    + "[--format jsonl|csv] [--out file] [--cache] [--moves] <directory | ->");
+            System.err.println("Algorithms: " + Arrays.toString(Algorithm.values()));
+            System.exit(2);
+        }
+
+        Writer writer = out == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8);
+        try (Writer results = writer) {
+            SolveCache cache = useCache ? MazeSolver.solveCache() : null;
+            BatchSolver batch = new BatchSolver(algorithm, threads, csv, cache);
+            batch.setWriteMoves(moves);
+            if (input.equals("-")) {
+                BufferedReader paths = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                batch.run(paths.lines().filter(line -> !line.isBlank()).map(line -> Paths.get(line.trim()))::iterator, results);
+            } else {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(input), Files::isRegularFile)) {
+                    batch.run(files, results);
+                }
+            }
+            if (cache != null) {
+                System.err.println("Solve cache: " + cache);
+            }
+        }
+    }
+
+    // adds the run-length move string of each path to the result lines
+    public void setWriteMoves(boolean writeMoves) {
+        this.writeMoves = writeMoves;
+    }
+
+    // solves every file from the iterable and writes the results; returns the number of mazes processed
+    public int run(Iterable<Path> files, Writer results) throws IOException, InterruptedException {
+        if (csv) {
+            results.write("file,rows,cols,pathLength,visited,expanded,maxFrontier,allocatedBytes,timeMs,searchMs,reconstructMs,"
+                    + (cache != null ? "cached," : "") + (writeMoves ? "moves," : "") + "error\n");
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * 2); // bounds the queue: backpressure on the reader
+        int count = 0;
+        try {
+            for (Path file : files) {
+                inFlight.acquire();
+                count++;
+                workers.execute(() -> {
+                    try {
+                        String line;
+                        try {
+                            line = solveOne(file);
+                        } catch (RuntimeException | Error e) {
+                            // a failed solve still gets its line, so there is one per input
+                            line = format(file, 0, 0, null, false, null, messageOf(e));
+                        }
+                        synchronized (results) {
+                            results.write(line);
+                            results.write('\n');
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Could not write result for " + file + ": " + e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        results.flush();
+        return count;
+    }
+
+    // loads and solves one maze and formats its result line (errors are reported in the line)
+    private String solveOne(Path file) {
+        MazeGrid grid;
+        try {
+            grid = MazeFiles.read(file); // binary files are memory-mapped, text is parsed
+        } catch (IOException | RuntimeException e) {
+            return format(file, 0, 0, null, false, null, messageOf(e));
+        }
+
+        if (cache == null && writeMoves) {
+            // streamed: the moves are encoded while the solver walks its parent links
+            ByteArrayOutputStream moves = new ByteArrayOutputStream();
+            RunLengthPath.Writer writer = new RunLengthPath.Writer(grid.cols(), Channels.newChannel(moves));
+            SolverMetrics metrics = solvers.get().solveWithMetrics(algorithm, grid, writer);
+            writer.finish();
+            return format(file, grid.rows(), grid.cols(), metrics, false,
+                    metrics.getPathLength() < 0 ? null : moves.toString(StandardCharsets.US_ASCII), null);
+        }
+        if (cache == null) {
+            SolverMetrics metrics = solvers.get().solveWithMetrics(algorithm, grid).getMetrics();
+            return format(file, grid.rows(), grid.cols(), metrics, false, null, null);
+        }
+
+        long startTime = System.nanoTime();
+        SolveCache.Key key = SolveCache.keyOf(grid, algorithm);
+        SolveCache.CachedPath cached = cache.get(key);
+        if (cached != null) {
+            // only the path length is known; the time is the hash + lookup
+            SolverMetrics metrics = new SolverMetrics("SolveCache", cached.getSteps(), 0, 0, 0, 0,
+                    System.nanoTime() - startTime, 0);
+            return format(file, grid.rows(), grid.cols(), metrics, true, movesOf(cached.toPositions()), null);
+        }
+        SolveResult result = solvers.get().solveWithMetrics(algorithm, grid);
+        cache.put(key, result.getPath());
+        return format(file, grid.rows(), grid.cols(), result.getMetrics(), false, movesOf(result.getPath()), null);
+    }
+
+    private static String messageOf(Throwable e) {
+        return e.getMessage() == null ? e.toString() : e.getMessage();
+    }
+
+    private String movesOf(List<MazeSolver.Position> path) {
+        return writeMoves && path != null ? RunLengthPath.encode(path) : null;
+    }
+
+    // metrics is null when the maze could not be loaded; moves is null without --moves or a path
+    private String format(Path file, int rows, int cols, SolverMetrics metrics, boolean cached, String moves, String error) {
+        int pathLength = metrics == null ? -1 : metrics.getPathLength(); // -1: no path
+        int visited = metrics == null ? 0 : metrics.getCellsVisited();
+        int expanded = metrics == null ? 0 : metrics.getCellsExpanded();
+        int maxFrontier = metrics == null ? 0 : metrics.getMaxFrontier();
+        long allocated = metrics == null ? 0 : metrics.getAllocatedBytes();
+        String timeMs = millis(metrics == null ? 0 : metrics.getTotalNanos());
+        String searchMs = millis(metrics == null ? 0 : metrics.getSearchNanos());
+        String reconstructMs = millis(metrics == null ? 0 : metrics.getReconstructNanos());
+
+        if (csv) {
+            return csvField(file.toString()) + "," + rows + "," + cols + "," + pathLength + "," + visited + ","
+                    + expanded + "," + maxFrontier + "," + allocated + "," + timeMs + "," + searchMs + ","
+                    + reconstructMs + "," + (cache != null ? cached + "," : "") + (writeMoves ? (moves == null ? "" : moves) + "," : "")
+                    + (error == null ? "" : csvField(error));
+        }
+        StringBuilder json = new StringBuilder(192);
+        json.append("{\"file\":").append(jsonString(file.toString()))
+                .append(",\"algorithm\":\"").append(algorithm.name()).append('"')
+                .append(",\"rows\":").append(rows)
+                .append(",\"cols\":").append(cols)
+                .append(",\"pathLength\":").append(pathLength)
+                .append(",\"visited\":").append(visited)
+                .append(",\"expanded\":").append(expanded)
+                .append(",\"maxFrontier\":").append(maxFrontier)
+                .append(",\"allocatedBytes\":").append(allocated)
+                .append(",\"timeMs\":").append(timeMs)
+                .append(",\"searchMs\":").append(searchMs)
+                .append(",\"reconstructMs\":").append(reconstructMs);
+        if (cache != null) {
+            json.append(",\"cached\":").append(cached);
+        }
+        if (moves != null) {
+            json.append(",\"moves\":\"").append(moves).append('"');
+        }
+        if (error != null) {
+            json.append(",\"error\":").append(jsonString(error));
+        }
+        return json.append('}').toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.List;
+
+/* BIDIRECTIONAL BFS */
+// Runs one BFS from the start and one from the end, one whole layer at a time, always
+// growing the side with the smaller frontier. When a cell reached from one side touches a
+// cell reached from the other, the layer is finished (to keep the shortest meeting point)
+// and the search stops. Each side only has to cover about half the distance, which on long
+// corridor mazes means far fewer visited cells than BFS from the start alone.
+// The backward half of the path is reversed into the forward parent array, so the usual
+// MazeSolver.reconstructPath builds the final list.
+public class BidirectionalBfsSolver implements GridSolver {
+    private int[] forwardQueue = new int[0];
+    private int[] backwardQueue = new int[0];
+    private int[] forwardParent = new int[0];  // parent[cell] on the start side
+    private int[] backwardParent = new int[0]; // parent[cell] on the end side (points towards the end)
+    private int[] forwardDist = new int[0];
+    private int[] backwardDist = new int[0];
+    private long[] forwardSeen = new long[0];  // bitsets of cells reached by each side
+    private long[] backwardSeen = new long[0];
+    private int expandedCount;
+    private int visitedCount;
+    private int maxFrontier;
+    private long reconstructNanos;
+    private SearchEvents events; // null unless a SearchListener is set
+
+    // best meeting found in the current layer
+    private int bestLength;
+    private int bestFrom; // cell on the side being expanded
+    private int bestTo;   // neighbouring cell already reached by the other side
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        List<MazeSolver.Position> path = search(grid)
+                ? MazeSolver.reconstructPath(forwardParent, grid.start(), grid.end(), grid.cols(), nanos -> reconstructNanos = nanos)
+                : null;
+        if (events != null) events.flush();
+        return path;
+    }
+
+    @Override
+    public int solveInto(MazeGrid grid, PathSink sink) {
+        int steps = search(grid)
+                ? MazeSolver.streamPath(forwardParent, grid.start(), grid.end(), sink, nanos -> reconstructNanos = nanos)
+                : -1;
+        if (events != null) events.flush();
+        return steps;
+    }
+
+    private boolean search(MazeGrid grid) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        int start = grid.start();
+        int end = grid.end();
+        if (start < 0 || end < 0) {
+            return false; // invalid maze
+        }
+
+        int cols = grid.cols();
+        int cells = grid.cellCount();
+        ensureCapacity(cells);
+        int words = (cells + 63) >>> 6;
+        Arrays.fill(forwardSeen, 0, words, 0L);
+        Arrays.fill(backwardSeen, 0, words, 0L);
+
+        forwardQueue[0] = start;
+        forwardParent[start] = start;
+        forwardDist[start] = 0;
+        forwardSeen[start >>> 6] |= 1L << start;
+        backwardQueue[0] = end;
+        backwardParent[end] = end;
+        backwardDist[end] = 0;
+        backwardSeen[end >>> 6] |= 1L << end;
+        visitedCount = start == end ? 1 : 2;
+        if (events != null) {
+            events.frontier(start);
+            if (start != end) events.frontier(end);
+        }
+        if (start == end) {
+            return true;
+        }
+
+        int forwardHead = 0, forwardTail = 1;
+        int backwardHead = 0, backwardTail = 1;
+        bestLength = Integer.MAX_VALUE;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            int frontier = (forwardTail - forwardHead) + (backwardTail - backwardHead);
+            if (frontier > maxFrontier) maxFrontier = frontier;
+            // expand one full layer of the smaller frontier
+            if (forwardTail - forwardHead <= backwardTail - backwardHead) {
+                int layerEnd = forwardTail;
+                while (forwardHead < layerEnd) {
+                    forwardTail = expand(grid, forwardQueue[forwardHead++], forwardTail, forwardQueue,
+                            forwardParent, forwardDist, forwardSeen, backwardSeen, backwardDist);
+                }
+                if (bestLength != Integer.MAX_VALUE) {
+                    stitch(end, bestFrom, bestTo);
+                    return true;
+                }
+            } else {
+                int layerEnd = backwardTail;
+                while (backwardHead < layerEnd) {
+                    backwardTail = expand(grid, backwardQueue[backwardHead++], backwardTail, backwardQueue,
+                            backwardParent, backwardDist, backwardSeen, forwardSeen, forwardDist);
+                }
+                if (bestLength != Integer.MAX_VALUE) {
+                    stitch(end, bestTo, bestFrom);
+                    return true;
+                }
+            }
+        }
+
+        return false; // one side ran out of cells: no path
+    }
+
+    // visits the neighbours of one cell for one side, remembering the best meeting point
+    private int expand(MazeGrid grid, int current, int tail, int[] queue, int[] parent, int[] dist,
+                       long[] seen, long[] otherSeen, int[] otherDist) {
+        if ((++expandedCount & (CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+        if (events != null) events.expanded(current);
+        int cols = grid.cols();
+        int row = current / cols;
+        int col = current - row * cols;
+
+        // up, right, down, left
+        if (row > 0) tail = visit(grid, current, current - cols, tail, queue, parent, dist, seen, otherSeen, otherDist);
+        if (col + 1 < cols) tail = visit(grid, current, current + 1, tail, queue, parent, dist, seen, otherSeen, otherDist);
+        if (row + 1 < grid.rows()) tail = visit(grid, current, current + cols, tail, queue, parent, dist, seen, otherSeen, otherDist);
+        if (col > 0) tail = visit(grid, current, current - 1, tail, queue, parent, dist, seen, otherSeen, otherDist);
+        return tail;
+    }
+
+    private int visit(MazeGrid grid, int from, int next, int tail, int[] queue, int[] parent, int[] dist,
+                      long[] seen, long[] otherSeen, int[] otherDist) {
+        if ((otherSeen[next >>> 6] & (1L << next)) != 0) {
+            // the two searches touch here
+            int length = dist[from] + 1 + otherDist[next];
+            if (length < bestLength) {
+                bestLength = length;
+                bestFrom = from;
+                bestTo = next;
+            }
+            return tail;
+        }
+        if ((seen[next >>> 6] & (1L << next)) == 0 && grid.isOpen(next)) {
+            seen[next >>> 6] |= 1L << next;
+            parent[next] = from;
+            dist[next] = dist[from] + 1;
+            queue[tail++] = next;
+            visitedCount++;
+            if (events != null) events.frontier(next);
+        }
+        return tail;
+    }
+
+    // joins the two halves: forwardCell was reached from the start, backwardCell from the end
+    private void stitch(int end, int forwardCell, int backwardCell) {
+        // walk the end side's chain and point it back towards the start
+        int previous = forwardCell;
+        int cell = backwardCell;
+        while (true) {
+            forwardParent[cell] = previous;
+            if (cell == end) break;
+            previous = cell;
+            cell = backwardParent[cell];
+        }
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    private void ensureCapacity(int cells) {
+        if (forwardParent.length < cells) {
+            forwardQueue = new int[cells];
+            backwardQueue = new int[cells];
+            forwardParent = new int[cells];
+            backwardParent = new int[cells];
+            forwardDist = new int[cells];
+            backwardDist = new int[cells];
+            forwardSeen = new long[(cells + 63) >>> 6];
+            backwardSeen = new long[(cells + 63) >>> 6];
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.Arrays;
+
+/* PACKED MAZE GRID */
+// Stores the maze as one bit per cell (1 = wall) in a long[], plus the start and end cells.
+// A 20000 x 20000 maze takes about 50 MB this way instead of about 800 MB as char[][].
+// Weighted mazes also get one cost byte per cell, created on the first setCost above 1.
+public class BitMazeGrid implements MazeGrid {
+    private final int rows;
+    private final int cols;
+    private final long[] walls; // bit (cell % 64) of walls[cell / 64] is set if the cell is a wall
+    private byte[] costs;       // cost of each cell (1-9), null while every cell costs 1
+    private int start = -1;
+    private int end = -1;
+
+    // creates a grid where every cell is a wall
+    public BitMazeGrid(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.walls = new long[(int) (((long) rows * cols + 63) >>> 6)];
+        Arrays.fill(walls, -1L);
+    }
+
+    // wraps existing wall bits (same layout as the binary maze file), used by MazeFiles
+    BitMazeGrid(int rows, int cols, long[] walls, int start, int end) {
+        this(rows, cols, walls, null, start, end);
+    }
+
+    BitMazeGrid(int rows, int cols, long[] walls, byte[] costs, int start, int end) {
+        this.rows = rows;
+        this.cols = cols;
+        this.walls = walls;
+        this.costs = costs;
+        this.start = start;
+        this.end = end;
+    }
+
+    /* ADAPTERS: char[][] <-> packed grid */
+
+    // builds a packed grid from a char[][] maze (everything except WALL is open)
+    public static BitMazeGrid fromChars(char[][] maze) {
+        int rows = maze.length;
+        int cols = maze[0].length;
+        BitMazeGrid grid = new BitMazeGrid(rows, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cell = row * cols + col;
+                char c = maze[row][col];
+                if (c != MazeSolver.WALL) {
+                    grid.setWall(cell, false);
+                    grid.setCost(cell, MazeSolver.costOf(c));
+                }
+                if (c == MazeSolver.START) {
+                    grid.start = cell;
+                } else if (c == MazeSolver.END) {
+                    grid.end = cell;
+                }
+            }
+        }
+        return grid;
+    }
+
+    // turns the packed grid back into a char[][] maze using the MazeSolver symbols
+    @Override
+    public char[][] toChars() {
+        char[][] maze = new char[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            char[] line = maze[row];
+            int base = row * cols;
+            for (int col = 0; col < cols; col++) {
+                line[col] = isWall(base + col) ? MazeSolver.WALL : MazeSolver.costSymbol(cost(base + col));
+            }
+        }
+        if (start >= 0) maze[start / cols][start % cols] = MazeSolver.START;
+        if (end >= 0) maze[end / cols][end % cols] = MazeSolver.END;
+        return maze;
+    }
+
+    /* CELL ACCESS */
+
+    // the raw wall bits, 64 cells per long (not copied)
+    long[] words() {
+        return walls;
+    }
+
+    // the raw cost bytes, null if the grid is not weighted (not copied)
+    byte[] costBytes() {
+        return costs;
+    }
+
+    @Override
+    public int cost(int cell) {
+        return costs == null ? 1 : costs[cell];
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return costs != null;
+    }
+
+    public void setCost(int cell, int cost) {
+        if (cost < 1 || cost > MAX_COST) {
+            throw new IllegalArgumentException("cost must be between 1 and " + MAX_COST + ": " + cost);
+        }
+        if (costs == null) {
+            if (cost == 1) return;
+            costs = new byte[rows * cols];
+            Arrays.fill(costs, (byte) 1);
+        }
+        costs[cell] = (byte) cost;
+    }
+
+    @Override
+    public long wallWord(int word) {
+        int cellsLeft = rows * cols - (word << 6);
+        return cellsLeft >= 64 ? walls[word] : walls[word] & ((1L << cellsLeft) - 1);
+    }
+
+    public boolean isWall(int cell) {
+        return (walls[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public void setWall(int cell, boolean wall) {
+        if (wall) {
+            walls[cell >>> 6] |= 1L << cell;
+        } else {
+            walls[cell >>> 6] &= ~(1L << cell);
+        }
+    }
+
+    @Override
+    public boolean isOpen(int cell) {
+        return (walls[cell >>> 6] & (1L << cell)) == 0;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int start() {
+        return start;
+    }
+
+    @Override
+    public int end() {
+        return end;
+    }
+
+    // start and end are always open cells
+    public void setStart(int cell) {
+        start = cell;
+        setWall(cell, false);
+    }
+
+    public void setEnd(int cell) {
+        end = cell;
+        setWall(cell, false);
+    }
+}
@@ -0,0 +1,408 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* BIT-PARALLEL BFS */
+// Breadth-first search on bits instead of cells. Open cells, visited cells and the frontier are
+// bitsets laid out row by row (every row starts on a fresh long, so a row of 2001 cells is 32
+// words), and a whole BFS layer is expanded with word operations: for a frontier word f
+//   left/right neighbours  (f << 1) | (f >>> 1), plus the bit carried over from the next word
+//   up/down neighbours     f itself, in the word one row above / below
+// each masked with open & ~visited. One word covers 64 cells, so on open terrain (weighted mazes,
+// rooms) a layer costs a few instructions per 64 cells instead of four checks per cell.
+// Only the words that have frontier bits are visited (a sparse list per layer), so the winding
+// one-cell frontier of a perfect maze costs about as much as a plain BFS.
+//
+// A layer is a thin wavefront, though: where it runs diagonally to the rows (open rooms, most of a
+// maze) each word holds only a bit or two of it, so a layered flood is about as fast as a plain
+// BFS. reachable() doesn't need layers and floods whole runs instead: within a word the open
+// cells connected to a seed bit are found with one addition, whose carry runs along the open bits
+// ((open + seed) ^ open) & open, and the same on the bit-reversed word for the other direction.
+// A corridor or an open row is then filled one word (64 cells) per step.
+//
+// distance() and layerSizes() only flood bits. For a path every layer is kept as a sorted list of
+// (word, bits) and the path is walked back from E through the layers: each step goes to a
+// neighbour in the layer before. The path has the same length as BFS (solveMazeWithQueue); when
+// several shortest paths exist it may take a different one.
+//
+// Plain long arithmetic: the Vector API (jdk.incubator.vector) would need an incubator module on
+// the command line of every user, and the sparse word lists leave little for it to work on.
+public class BitParallelBfsSolver implements GridSolver {
+    private int rows;
+    private int cols;
+    private int rowWords;                // longs per row
+    private long[] open = new long[0];   // open cells, row-wise
+    private long[] visited = new long[0];
+    private long[] next = new long[0];   // bits of the layer being built (zero outside a layer)
+    private int[] frontierWords = new int[0]; // words of the current layer
+    private long[] frontierBits = new long[0];
+    private int frontierSize;
+    private int[] nextWords = new int[0];
+    private int nextSize;
+
+    // layers kept for the path: entries layerStart[d] .. layerStart[d + 1] - 1, sorted by word
+    private int[] layerStart = new int[0];
+    private int[] layerWords = new int[0];
+    private long[] layerBits = new long[0];
+    private int layerEntries;
+
+    private int expandedCount;
+    private int visitedCount;
+    private int maxFrontier;
+    private long reconstructNanos;
+    private SearchEvents events; // null unless a SearchListener is set
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+    }
+
+    /* QUERIES */
+
+    // true if E can be reached from S (run filling, no layers)
+    public boolean reachable(MazeGrid grid) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        int start = grid.start();
+        int end = grid.end();
+        if (start < 0 || end < 0 || !grid.isOpen(start)) return false;
+        load(grid);
+        int endWord = wordOf(end);
+        long endBit = bitOf(end);
+
+        // words with seed bits waiting in next[] (nextWords is used as a stack)
+        int lastRow = rows - 1;
+        int lastWord = rowWords - 1;
+        nextSize = 0;
+        seed(wordOf(start), bitOf(start));
+        while (nextSize > 0) {
+            int word = nextWords[--nextSize];
+            long seeds = next[word];
+            next[word] = 0;
+            if ((++expandedCount & (CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            long filled = fillRuns(open[word], seeds) & ~visited[word];
+            if (filled == 0) continue;
+            visited[word] |= filled;
+            visitedCount += Long.bitCount(filled);
+            if ((visited[endWord] & endBit) != 0) {
+                clearSeeds();
+                return true;
+            }
+            int row = word / rowWords;
+            int inRow = word - row * rowWords;
+            if (inRow < lastWord && filled < 0) seed(word + 1, 1L);               // run goes on right
+            if (inRow > 0 && (filled & 1) != 0) seed(word - 1, 1L << 63);         // run goes on left
+            if (row > 0) seed(word - rowWords, filled);
+            if (row < lastRow) seed(word + rowWords, filled);
+            if (nextSize > maxFrontier) maxFrontier = nextSize;
+        }
+        return false;
+    }
+
+    // the open bits connected to a seed through open bits of the same word
+    private static long fillRuns(long open, long seeds) {
+        seeds &= open;
+        long up = (((open + seeds) ^ open) & open) | seeds;
+        long reversedOpen = Long.reverse(open);
+        long reversedSeeds = Long.reverse(seeds);
+        long down = Long.reverse((((reversedOpen + reversedSeeds) ^ reversedOpen) & reversedOpen) | reversedSeeds);
+        return up | down;
+    }
+
+    private void seed(int word, long bits) {
+        bits &= open[word] & ~visited[word];
+        if (bits == 0) return;
+        if (next[word] == 0) nextWords[nextSize++] = word;
+        next[word] |= bits;
+    }
+
+    // next[] has to be all zero again for the next flood
+    private void clearSeeds() {
+        while (nextSize > 0) {
+            next[nextWords[--nextSize]] = 0;
+        }
+    }
+
+    // BFS distance from S to E in steps, -1 if E can't be reached
+    public int distance(MazeGrid grid) {
+        return Math.max(-1, flood(grid, false, null));
+    }
+
+    // cells at distance 0, 1, 2, ... from S, over everything S can reach (E doesn't stop it);
+    // null if the maze has no start
+    public int[] layerSizes(MazeGrid grid) {
+        int[][] sizes = {new int[64]};
+        if (flood(grid, false, sizes) == -2) return null;
+        return sizes[0];
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        int steps = flood(grid, true, null);
+        List<MazeSolver.Position> path = null;
+        if (steps >= 0) {
+            long startTime = System.nanoTime();
+            int[] cells = walkBack(grid, steps);
+            path = new ArrayList<>(cells.length);
+            MazeSolver.Position previous = null;
+            for (int cell : cells) {
+                previous = new MazeSolver.Position(cell / cols, cell % cols, previous);
+                path.add(previous);
+            }
+            reconstructNanos = System.nanoTime() - startTime;
+        }
+        if (events != null) events.flush();
+        return path;
+    }
+
+    @Override
+    public int solveInto(MazeGrid grid, PathSink sink) {
+        int steps = flood(grid, true, null);
+        if (steps >= 0) {
+            long startTime = System.nanoTime();
+            for (int cell : walkBack(grid, steps)) {
+                sink.cell(cell);
+            }
+            reconstructNanos = System.nanoTime() - startTime;
+        }
+        if (events != null) events.flush();
+        return steps;
+    }
+
+    /* FLOODING */
+
+    // expands layer after layer from S. Returns the distance of E (-1 if it can't be reached,
+    // -2 if there is no start). With keepLayers every layer is stored for walkBack; with sizes
+    // the flood goes on past E and sizes[0] gets the cell count of every layer.
+    private int flood(MazeGrid grid, boolean keepLayers, int[][] sizes) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        layerEntries = 0;
+        int start = grid.start();
+        int end = grid.end();
+        if (start < 0 || (end < 0 && sizes == null) || !grid.isOpen(start)) {
+            return -2;
+        }
+        load(grid);
+
+        int endWord = end < 0 ? -1 : wordOf(end);
+        long endBit = end < 0 ? 0 : bitOf(end);
+        int startWord = wordOf(start);
+        long startBit = bitOf(start);
+        visited[startWord] = startBit;
+        frontierWords[0] = startWord;
+        frontierBits[0] = startBit;
+        frontierSize = 1;
+        visitedCount = 1;
+        maxFrontier = 1;
+        if (events != null) events.frontier(start);
+        if (keepLayers) keepLayer(0);
+
+        int found = start == end ? 0 : -1;
+        int layerCount = 0;
+        for (int layer = 0; frontierSize > 0; layer++) {
+            GridSolver.checkCancelled();
+            int cells = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                cells += Long.bitCount(frontierBits[i]);
+            }
+            expandedCount += cells;
+            if (sizes != null) {
+                if (layerCount == sizes[0].length) sizes[0] = Arrays.copyOf(sizes[0], layerCount * 2);
+                sizes[0][layerCount++] = cells;
+            }
+            if (events != null) report(frontierWords, frontierBits, frontierSize, true);
+            if (found >= 0 && sizes == null) break;
+
+            expand();
+            collect(keepLayers);
+            if (keepLayers) keepLayer(layer + 1);
+            if (found < 0 && endWord >= 0 && (visited[endWord] & endBit) != 0) {
+                found = layer + 1;
+            }
+        }
+        if (sizes != null) sizes[0] = Arrays.copyOf(sizes[0], layerCount);
+        return found;
+    }
+
+    // ORs the neighbours of every frontier word into next (masked with open & ~visited)
+    private void expand() {
+        nextSize = 0;
+        int lastRow = rows - 1;
+        int lastWord = rowWords - 1;
+        for (int i = 0; i < frontierSize; i++) {
+            int word = frontierWords[i];
+            long bits = frontierBits[i];
+            int row = word / rowWords;
+            int inRow = word - row * rowWords;
+            add(word, (bits << 1) | (bits >>> 1));               // right and left, inside the word
+            if (inRow < lastWord) add(word + 1, bits >>> 63);      // right, across into the next word
+            if (inRow > 0) add(word - 1, bits << 63);              // left, across into the previous word
+            if (row > 0) add(word - rowWords, bits);               // up
+            if (row < lastRow) add(word + rowWords, bits);         // down
+        }
+    }
+
+    private void add(int word, long bits) {
+        bits &= open[word] & ~visited[word];
+        if (bits == 0) return;
+        if (next[word] == 0) nextWords[nextSize++] = word;
+        next[word] |= bits;
+    }
+
+    // turns next into the new frontier and marks it visited (words sorted when layers are kept)
+    private void collect(boolean sorted) {
+        if (sorted) Arrays.sort(nextWords, 0, nextSize);
+        int[] swap = frontierWords;
+        frontierWords = nextWords;
+        nextWords = swap;
+        frontierSize = nextSize;
+        int cells = 0;
+        for (int i = 0; i < frontierSize; i++) {
+            int word = frontierWords[i];
+            long bits = next[word];
+            next[word] = 0;
+            visited[word] |= bits;
+            frontierBits[i] = bits;
+            cells += Long.bitCount(bits);
+        }
+        visitedCount += cells;
+        if (cells > maxFrontier) maxFrontier = cells;
+        if (events != null) report(frontierWords, frontierBits, frontierSize, false);
+    }
+
+    // sends the cells of a layer to the listener (as added, or as expanded)
+    private void report(int[] words, long[] bits, int size, boolean expanded) {
+        for (int i = 0; i < size; i++) {
+            int row = words[i] / rowWords;
+            int firstCol = (words[i] - row * rowWords) << 6;
+            for (long left = bits[i]; left != 0; left &= left - 1) {
+                int cell = row * cols + firstCol + Long.numberOfTrailingZeros(left);
+                if (expanded) {
+                    events.expanded(cell);
+                } else {
+                    events.frontier(cell);
+                }
+            }
+        }
+    }
+
+    /* PATH */
+
+    private void keepLayer(int layer) {
+        if (layer + 2 > layerStart.length) layerStart = Arrays.copyOf(layerStart, Math.max(64, layer * 2 + 2));
+        if (layerEntries + frontierSize > layerWords.length) {
+            int grown = Math.max(layerEntries + frontierSize, layerWords.length * 2);
+            layerWords = Arrays.copyOf(layerWords, grown);
+            layerBits = Arrays.copyOf(layerBits, grown);
+        }
+        layerStart[layer] = layerEntries;
+        System.arraycopy(frontierWords, 0, layerWords, layerEntries, frontierSize);
+        System.arraycopy(frontierBits, 0, layerBits, layerEntries, frontierSize);
+        layerEntries += frontierSize;
+        layerStart[layer + 1] = layerEntries;
+    }
+
+    // the path from S to E (at distance steps) as flat cells, walked back through the kept layers
+    private int[] walkBack(MazeGrid grid, int steps) {
+        int[] path = new int[steps + 1];
+        int cell = grid.end();
+        path[steps] = cell;
+        for (int layer = steps - 1; layer >= 0; layer--) {
+            int row = cell / cols;
+            int col = cell - row * cols;
+            // same order as MazeSolver.DIRECTIONS: up, right, down, left
+            if (row > 0 && inLayer(layer, cell - cols)) {
+                cell -= cols;
+            } else if (col + 1 < cols && inLayer(layer, cell + 1)) {
+                cell += 1;
+            } else if (row + 1 < rows && inLayer(layer, cell + cols)) {
+                cell += cols;
+            } else if (col > 0 && inLayer(layer, cell - 1)) {
+                cell -= 1;
+            } else {
+                throw new IllegalStateException("no cell of layer " + layer + " next to " + cell);
+            }
+            path[layer] = cell;
+        }
+        return path;
+    }
+
+    private boolean inLayer(int layer, int cell) {
+        int entry = Arrays.binarySearch(layerWords, layerStart[layer], layerStart[layer + 1], wordOf(cell));
+        return entry >= 0 && (layerBits[entry] & bitOf(cell)) != 0;
+    }
+
+    /* BITSETS */
+
+    private int wordOf(int cell) {
+        int row = cell / cols;
+        return row * rowWords + ((cell - row * cols) >>> 6);
+    }
+
+    private long bitOf(int cell) {
+        return 1L << (cell % cols); // shift counts are taken mod 64
+    }
+
+    // copies the open cells into the row-wise layout, a word at a time from the grid's wall words
+    private void load(MazeGrid grid) {
+        rows = grid.rows();
+        cols = grid.cols();
+        rowWords = (cols + 63) >>> 6;
+        int words = rows * rowWords;
+        if (open.length < words) {
+            open = new long[words];
+            visited = new long[words];
+            next = new long[words];
+            frontierWords = new int[words];
+            frontierBits = new long[words];
+            nextWords = new int[words];
+        } else {
+            Arrays.fill(visited, 0, words, 0L);
+        }
+        for (int row = 0; row < rows; row++) {
+            if ((row & 255) == 0) GridSolver.checkCancelled();
+            long first = (long) row * cols; // flat index of the row's first cell
+            for (int w = 0; w < rowWords; w++) {
+                long offset = first + ((long) w << 6);
+                int wanted = Math.min(64, cols - (w << 6));
+                int source = (int) (offset >>> 6);
+                int shift = (int) (offset & 63);
+                long walls = grid.wallWord(source) >>> shift;
+                if (shift != 0 && 64 - shift < wanted) walls |= grid.wallWord(source + 1) << (64 - shift);
+                long mask = wanted == 64 ? -1L : (1L << wanted) - 1;
+                open[row * rowWords + w] = ~walls & mask;
+            }
+        }
+    }
+
+    /* STATISTICS */
+
+    // cells of every layer taken as the frontier (the cells a plain BFS would expand);
+    // after reachable(), the words taken off its stack
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    // largest layer, in cells
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    // time spent walking the path back through the layers
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+}
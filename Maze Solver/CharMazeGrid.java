@@ -0,0 +1,67 @@
+/* CHAR[][] ADAPTER */
+// Lets the solvers run directly on the char[][] mazes used by MazeSolver and MazeSolverApp
+// without copying them. Start and end are looked up once when the view is created.
+public class CharMazeGrid implements MazeGrid {
+    private final char[][] maze;
+    private final int rows;
+    private final int cols;
+    private final int start;
+    private final int end;
+    private Boolean weighted; // looked up on first use
+
+    public CharMazeGrid(char[][] maze) {
+        this.maze = maze;
+        this.rows = maze.length;
+        this.cols = maze[0].length;
+        this.start = toCell(MazeSolver.findPosition(maze, MazeSolver.START));
+        this.end = toCell(MazeSolver.findPosition(maze, MazeSolver.END));
+    }
+
+    private int toCell(MazeSolver.Position pos) {
+        return pos == null ? -1 : pos.row * cols + pos.col;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public boolean isOpen(int cell) {
+        int row = cell / cols;
+        return maze[row][cell - row * cols] != MazeSolver.WALL;
+    }
+
+    @Override
+    public int cost(int cell) {
+        int row = cell / cols;
+        return MazeSolver.costOf(maze[row][cell - row * cols]);
+    }
+
+    @Override
+    public boolean isWeighted() {
+        if (weighted == null) {
+            boolean found = false;
+            for (int cell = 0; cell < rows * cols && !found; cell++) {
+                found = isOpen(cell) && cost(cell) > 1;
+            }
+            weighted = found;
+        }
+        return weighted;
+    }
+
+    @Override
+    public int start() {
+        return start;
+    }
+
+    @Override
+    public int end() {
+        return end;
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+import java.util.List;
+
+/* DIJKSTRA WITH A BUCKET QUEUE */
+// Cheapest path on weighted terrain: stepping onto a cell costs MazeGrid.cost(cell) (1-9).
+// Because every cost is a small integer, the frontier is a bucket queue (Dial's algorithm)
+// instead of a heap: cells waiting at distance d sit in bucket d % (MAX_COST + 1), and the
+// search just walks the buckets in order. Every cell it can still reach is at most MAX_COST
+// past the current distance, so MAX_COST + 1 buckets are enough. Pushing and popping are O(1)
+// array operations on int[] buckets, so the search runs close to BFS speed.
+// A cell that gets cheaper is pushed again and its old entry is skipped when popped.
+// On a maze without weights every step costs 1 and the result is a BFS shortest path.
+public class DijkstraSolver implements GridSolver {
+    private static final int BUCKETS = MazeGrid.MAX_COST + 1;
+
+    private final int[][] buckets = new int[BUCKETS][16]; // cells waiting, by distance % BUCKETS
+    private final int[] bucketSize = new int[BUCKETS];
+    private int[] parent = new int[0]; // parent[cell] = cell it was reached from
+    private int[] dist = new int[0];   // cheapest known cost from the start (valid once seen)
+    private long[] seen = new long[0]; // bitset: dist[cell] is set
+    private long[] done = new long[0]; // bitset: cost of the cell is final
+    private int expandedCount;
+    private int visitedCount;
+    private int maxFrontier;
+    private long reconstructNanos;
+    private long pathCost;
+    private SearchEvents events; // null unless a SearchListener is set
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        List<MazeSolver.Position> path = search(grid)
+                ? MazeSolver.reconstructPath(parent, grid.start(), grid.end(), grid.cols(), nanos -> reconstructNanos = nanos)
+                : null;
+        if (events != null) events.flush();
+        return path;
+    }
+
+    @Override
+    public int solveInto(MazeGrid grid, PathSink sink) {
+        int steps = search(grid)
+                ? MazeSolver.streamPath(parent, grid.start(), grid.end(), sink, nanos -> reconstructNanos = nanos)
+                : -1;
+        if (events != null) events.flush();
+        return steps;
+    }
+
+    private boolean search(MazeGrid grid) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        pathCost = -1;
+        int start = grid.start();
+        int end = grid.end();
+        if (start < 0 || end < 0) {
+            return false; // invalid maze
+        }
+
+        int rows = grid.rows();
+        int cols = grid.cols();
+        int cells = rows * cols;
+        ensureCapacity(cells);
+        int words = (cells + 63) >>> 6;
+        Arrays.fill(seen, 0, words, 0L);
+        Arrays.fill(done, 0, words, 0L);
+        Arrays.fill(bucketSize, 0);
+
+        dist[start] = 0;
+        parent[start] = start;
+        seen[start >>> 6] |= 1L << start;
+        visitedCount = 1;
+        if (events != null) events.frontier(start);
+        push(0, start);
+        int waiting = 1; // entries in all buckets, including outdated ones
+        maxFrontier = 1;
+
+        int current = 0; // distance of the bucket being emptied
+        while (waiting > 0) {
+            int bucket = current % BUCKETS;
+            if (bucketSize[bucket] == 0) {
+                current++;
+                continue;
+            }
+            int cell = buckets[bucket][--bucketSize[bucket]];
+            waiting--;
+            if ((done[cell >>> 6] & (1L << cell)) != 0 || dist[cell] != current) {
+                continue; // outdated entry: the cell was pushed again with a lower cost
+            }
+            done[cell >>> 6] |= 1L << cell;
+            if ((++expandedCount & (CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            if (events != null) events.expanded(cell);
+            if (cell == end) {
+                pathCost = current;
+                return true;
+            }
+
+            int row = cell / cols;
+            int col = cell - row * cols;
+            // up, right, down, left
+            if (row > 0) waiting += relax(grid, cell, cell - cols, current);
+            if (col + 1 < cols) waiting += relax(grid, cell, cell + 1, current);
+            if (row + 1 < rows) waiting += relax(grid, cell, cell + cols, current);
+            if (col > 0) waiting += relax(grid, cell, cell - 1, current);
+            if (waiting > maxFrontier) maxFrontier = waiting;
+        }
+
+        return false; // no path found
+    }
+
+    // pushes the neighbour if this way is cheaper; returns the number of entries added (0 or 1)
+    private int relax(MazeGrid grid, int from, int next, int current) {
+        if ((done[next >>> 6] & (1L << next)) != 0 || !grid.isOpen(next)) {
+            return 0;
+        }
+        int nextDist = current + grid.cost(next);
+        boolean isNew = (seen[next >>> 6] & (1L << next)) == 0;
+        if (!isNew && nextDist >= dist[next]) {
+            return 0;
+        }
+        if (isNew) {
+            seen[next >>> 6] |= 1L << next;
+            visitedCount++;
+            if (events != null) events.frontier(next);
+        }
+        dist[next] = nextDist;
+        parent[next] = from;
+        push(nextDist % BUCKETS, next);
+        return 1;
+    }
+
+    private void push(int bucket, int cell) {
+        int[] cellsInBucket = buckets[bucket];
+        if (bucketSize[bucket] == cellsInBucket.length) {
+            cellsInBucket = Arrays.copyOf(cellsInBucket, cellsInBucket.length * 2);
+            buckets[bucket] = cellsInBucket;
+        }
+        cellsInBucket[bucketSize[bucket]++] = cell;
+    }
+
+    // total cost of the path found by the last solve, -1 if there was none
+    public long getPathCost() {
+        return pathCost;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    private void ensureCapacity(int cells) {
+        if (parent.length < cells) {
+            parent = new int[cells];
+            dist = new int[cells];
+            seen = new long[(cells + 63) >>> 6];
+            done = new long[(cells + 63) >>> 6];
+        }
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/* ROW-STREAMING MAZE GENERATOR (ELLER'S ALGORITHM) */
+// Generates a perfect maze one row at a time and hands every finished row to a RowSink, so only a
+// few arrays of one row are ever in memory and the maze can be far bigger than the heap. The
+// layout is the one generateMaze uses: cells on odd rows and columns, walls between them, a wall
+// border, S at (1, 1) and E at (rows - 2, cols - 2).
+//
+// Eller's algorithm keeps only the set every cell of the current row belongs to (cells in the same
+// set are already connected through the rows above):
+//   1. join neighbours in different sets at random (opening the wall between them)
+//   2. every set opens at least one passage down, the other cells of the set at random
+//   3. cells without a passage down start a new set in the next row
+// and the last row joins every neighbour still in a different set, so every cell is connected
+// exactly once: no loops, one path between any two cells. Sets are kept in a small union-find
+// that is renumbered every row. Same seed -> same maze (but not the same one as generateMaze).
+//
+// Text and binary files are written straight to a channel. They load into an int cell index, so
+// past 2^31 cells write a tiled file (TiledMazeGrid, solved by TiledSolver) instead.
+public final class EllerMazeGenerator {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    // receives the maze one row at a time, top to bottom
+    public interface RowSink {
+        // open cells of the row: bit (col % 64) of open[col / 64]; only valid during the call
+        void row(int row, long[] open) throws IOException;
+    }
+
+    private EllerMazeGenerator() {
+    }
+
+    /* GENERATING */
+
+    // generates a rows x cols maze into the sink (minimum size 5x5, like generateMaze)
+    public static void generate(int rows, int cols, long seed, RowSink sink) throws IOException {
+        rows = Math.max(5, rows);
+        cols = Math.max(5, cols);
+        int cellRows = (rows - 1) / 2;
+        int cellCols = (cols - 1) / 2;
+        int endRow = rows - 2;
+        int endCol = cols - 2;
+        // on even sizes E isn't on a cell: it is joined to the nearest one, through one more cell
+        // if both are even (a dead end, so the maze stays perfect)
+        boolean corner = endRow % 2 == 0 && endCol % 2 == 0;
+
+        long[] open = new long[(cols + 63) >>> 6];
+        int[] set = new int[cellCols];      // set of each cell in the current row, 0 .. cellCols - 1
+        int[] parent = new int[cellCols];   // union-find over the set numbers of this row
+        int[] remaining = new int[cellCols]; // cells of each set still to decide (step 2)
+        int[] stamp = new int[cellCols];    // i + 1 once the set has a passage down, -(i + 1) once renumbered
+        int[] label = new int[cellCols];    // new number of each set for the next row
+        for (int j = 0; j < cellCols; j++) {
+            set[j] = j;
+        }
+        Coin coin = new Coin(seed);
+
+        int row = 0;
+        emit(sink, row++, open, endRow, endCol, corner); // top border
+        for (int i = 0; i < cellRows; i++) {
+            if ((i & 255) == 0) GridSolver.checkCancelled();
+            boolean last = i == cellRows - 1;
+
+            // 1. the row of cells, joined sideways
+            Arrays.fill(open, 0L);
+            for (int j = 0; j < cellCols; j++) {
+                parent[set[j]] = set[j];
+                setBit(open, 2 * j + 1);
+            }
+            int left = set[0]; // root of the cell on the left (joining only ever moves it to the right one)
+            for (int j = 0; j + 1 < cellCols; j++) {
+                int right = find(parent, set[j + 1]);
+                if (left != right && (last || coin.flip())) {
+                    parent[left] = right;
+                    setBit(open, 2 * j + 2);
+                }
+                left = right;
+            }
+            for (int j = 0; j < cellCols; j++) {
+                set[j] = find(parent, set[j]);
+            }
+            emit(sink, row++, open, endRow, endCol, corner);
+
+            // 2. the row of passages down (none under the last row: that is the bottom border)
+            Arrays.fill(open, 0L);
+            if (!last) {
+                int mark = i + 1;
+                for (int j = 0; j < cellCols; j++) {
+                    remaining[set[j]]++;
+                }
+                for (int j = 0; j < cellCols; j++) {
+                    int s = set[j];
+                    boolean lastChance = --remaining[s] == 0 && stamp[s] != mark;
+                    if (lastChance || coin.flip()) {
+                        stamp[s] = mark;
+                        setBit(open, 2 * j + 1);
+                    } else {
+                        set[j] = -1;
+                    }
+                }
+                // 3. renumber: cells going down keep their set, the others get new ones
+                int next = 0;
+                for (int j = 0; j < cellCols; j++) {
+                    int s = set[j];
+                    if (s < 0) {
+                        set[j] = next++;
+                    } else if (stamp[s] == -mark) {
+                        set[j] = label[s]; // numbered already
+                    } else {
+                        stamp[s] = -mark;
+                        label[s] = next;
+                        set[j] = next++;
+                    }
+                }
+            }
+            emit(sink, row++, open, endRow, endCol, corner);
+        }
+        Arrays.fill(open, 0L);
+        while (row < rows) {
+            emit(sink, row++, open, endRow, endCol, corner); // bottom border (two rows on even sizes)
+        }
+    }
+
+    // opens E (and the cell joining it on even sizes) in its row, then hands the row on
+    private static void emit(RowSink sink, int row, long[] open, int endRow, int endCol, boolean corner)
+            throws IOException {
+        if (row == endRow || (corner && row == endRow - 1)) setBit(open, endCol);
+        sink.row(row, open);
+    }
+
+    private static int find(int[] parent, int s) {
+        while (parent[s] != s) {
+            parent[s] = parent[parent[s]]; // path halving
+            s = parent[s];
+        }
+        return s;
+    }
+
+    private static void setBit(long[] bits, int col) {
+        bits[col >>> 6] |= 1L << col;
+    }
+
+    // random booleans 64 at a time from one nextLong
+    private static final class Coin {
+        private final SplittableRandom random;
+        private long bits;
+        private int left;
+
+        Coin(long seed) {
+            random = new SplittableRandom(seed);
+        }
+
+        boolean flip() {
+            if (left == 0) {
+                bits = random.nextLong();
+                left = 64;
+            }
+            left--;
+            boolean heads = (bits & 1) != 0;
+            bits >>>= 1;
+            return heads;
+        }
+    }
+
+    /* WRITING */
+
+    // text format (see MazeFiles), one buffered channel write per 64 KB
+    public static void writeText(int rows, int cols, long seed, WritableByteChannel out) throws IOException {
+        int width = Math.max(5, cols);
+        int endRow = Math.max(5, rows) - 2;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        generate(rows, cols, seed, (row, open) -> {
+            for (int col = 0; col < width; col++) {
+                if (!buffer.hasRemaining()) drain(buffer, out);
+                char symbol;
+                if (row == 1 && col == 1) {
+                    symbol = MazeSolver.START;
+                } else if (row == endRow && col == width - 2) {
+                    symbol = MazeSolver.END;
+                } else {
+                    symbol = (open[col >>> 6] & (1L << col)) != 0 ? MazeSolver.PATH : MazeSolver.WALL;
+                }
+                buffer.put((byte) symbol);
+            }
+            if (!buffer.hasRemaining()) drain(buffer, out);
+            buffer.put((byte) '\n');
+        });
+        drain(buffer, out);
+    }
+
+    public static void writeText(int rows, int cols, long seed, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeText(rows, cols, seed, channel);
+        }
+    }
+
+    // binary .maze format (see MazeFiles): the wall bits of each row are appended to the flat
+    // 64-cells-per-long stream as they come
+    public static void writeBinary(int rows, int cols, long seed, Path file) throws IOException {
+        checkBinarySize(rows, cols); // before the file is created
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeBinary(rows, cols, seed, channel);
+        }
+    }
+
+    public static void writeBinary(int rows, int cols, long seed, WritableByteChannel out) throws IOException {
+        checkBinarySize(rows, cols);
+        int height = Math.max(5, rows);
+        int width = Math.max(5, cols);
+        WallPacker packer = new WallPacker(out);
+        packer.buffer.putInt(MazeFiles.MAGIC).putInt(MazeFiles.VERSION).putInt(height).putInt(width)
+                .putLong(width + 1).putLong((long) (height - 2) * width + width - 2);
+        generate(rows, cols, seed, (row, open) -> {
+            for (int word = 0; word < open.length; word++) {
+                int count = Math.min(64, width - (word << 6));
+                packer.add(~open[word] & (count == 64 ? -1L : (1L << count) - 1), count);
+            }
+        });
+        packer.finish();
+    }
+
+    private static void checkBinarySize(int rows, int cols) {
+        long cells = (long) Math.max(5, rows) * Math.max(5, cols);
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(Math.max(5, rows) + " x " + Math.max(5, cols)
+                    + " is too big for a .maze file (2^31 cells at most), write a .tiles file instead");
+        }
+    }
+
+    // packs the wall bits of consecutive rows into the flat 64-cells-per-long layout of .maze files
+    private static final class WallPacker {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final WritableByteChannel out;
+        private long bits; // bits of the next long so far (the ones above used are 0)
+        private int used;
+
+        WallPacker(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        // appends the lowest count bits of walls
+        void add(long walls, int count) throws IOException {
+            bits |= walls << used;
+            if (used + count < 64) {
+                used += count;
+                return;
+            }
+            if (buffer.remaining() < 8) drain(buffer, out);
+            buffer.putLong(bits);
+            bits = used == 0 ? 0 : walls >>> (64 - used); // a shift by 64 would leave walls as it is
+            used += count - 64;
+        }
+
+        // writes the last, partly filled long and everything buffered
+        void finish() throws IOException {
+            if (used > 0) {
+                if (buffer.remaining() < 8) drain(buffer, out);
+                buffer.putLong(bits);
+            }
+            drain(buffer, out);
+        }
+    }
+
+    // tiled file (see TiledMazeGrid) for mazes of any size; rows come in order, so one band of
+    // tiles at a time is cached and written
+    public static void writeTiled(int rows, int cols, long seed, Path file, int tileSize) throws IOException {
+        int height = Math.max(5, rows);
+        int width = Math.max(5, cols);
+        long bandBytes = ((long) width + tileSize - 1) / tileSize * tileSize * (long) tileSize / 8;
+        long cacheBytes = Math.max(TiledMazeGrid.DEFAULT_CACHE_BYTES, 2 * bandBytes);
+        try (TiledMazeGrid tiled = TiledMazeGrid.create(file, height, width, tileSize, cacheBytes)) {
+            generate(rows, cols, seed, tiled::setRow);
+            tiled.setStart(1, 1);
+            tiled.setEnd(height - 2, width - 2);
+        }
+    }
+
+    /* COMMAND LINE */
+
+    // java MazeSolver generate [--seed N] [--tile N] <rows> <cols> <file>
+    // the file name picks the format: .maze binary, .tiles tiled, anything else text ("-" = standard output)
+    public static void main(String[] args) throws IOException {
+        long seed = new SplittableRandom().nextLong();
+        int tileSize = TiledMazeGrid.DEFAULT_TILE_SIZE;
+        List<String> rest = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--tile":
+                    tileSize = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    rest.add(args[i]);
+            }
+        }
+        if (rest.size() != 3) {
+            System.err.println("Usage: java MazeSolver generate [--seed N] [--tile N] <rows> <cols> <file>\n"
+                    + "       (.maze = binary, .tiles = tiled, - = text on standard output, anything else = text)");
+            System.exit(2);
+        }
+        int rows = Integer.parseInt(rest.get(0));
+        int cols = Integer.parseInt(rest.get(1));
+        String name = rest.get(2);
+
+        long startTime = System.nanoTime();
+        if (name.equals("-")) {
+            writeText(rows, cols, seed, Channels.newChannel(System.out));
+            System.out.flush();
+            return; // nothing else on standard output
+        }
+        Path file = Paths.get(name);
+        if (name.endsWith(".maze")) {
+            writeBinary(rows, cols, seed, file);
+        } else if (name.endsWith(".tiles")) {
+            writeTiled(rows, cols, seed, file, tileSize);
+        } else {
+            writeText(rows, cols, seed, file);
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        long cells = (long) Math.max(5, rows) * Math.max(5, cols);
+        System.out.printf(Locale.ROOT, "%d x %d maze (seed %d) written to %s in %.1f s (%.0f million cells/s, %s)%n",
+                Math.max(5, rows), Math.max(5, cols), seed, file, seconds, cells / seconds / 1e6,
+                MazeSolver.formatBytes(Files.size(file)));
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/* SOLVER INTERFACE */
+// Common shape of every maze solving algorithm, so MazeSolver.main and MazeSolverApp
+// can run any of them and compare how much work each one did.
+public interface GridSolver {
+    // returns the path from start to end (both included), or null if there is none
+    List<MazeSolver.Position> solve(MazeGrid grid);
+
+    // streams the path into the sink (start first) instead of building a list and returns its
+    // length in steps, or -1 if there is none (nothing is sent then). Solvers with a parent array
+    // walk it in place (MazeSolver.streamPath); this default still builds the list once.
+    default int solveInto(MazeGrid grid, PathSink sink) {
+        List<MazeSolver.Position> path = solve(grid);
+        if (path == null) return -1;
+        int cols = grid.cols();
+        for (MazeSolver.Position position : path) {
+            sink.cell(position.row * cols + position.col);
+        }
+        return path.size() - 1;
+    }
+
+    // cells taken off the frontier and expanded during the last solve
+    int getExpandedCount();
+
+    // cells discovered (marked visited) during the last solve
+    int getVisitedCount();
+
+    // most cells waiting in the frontier (queue/stack/heap) at one time during the last solve
+    int getMaxFrontier();
+
+    // time the last solve spent turning the parent links into the path list
+    long getReconstructNanos();
+
+    // reports frontier/expanded cells to the listener during later solves (null = stop reporting);
+    // solvers that can't report progress ignore it
+    default void setSearchListener(SearchListener listener) {
+    }
+
+    // cooperative cancellation: solvers call this every CANCEL_CHECK_INTERVAL expanded cells, so
+    // interrupting the solving thread (e.g. Future.cancel(true)) stops even a huge solve quickly;
+    // so does the condition of a SolveCancellation.run the solve runs in
+    int CANCEL_CHECK_INTERVAL = 4096; // power of two
+
+    static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted() || SolveCancellation.isRequested()) {
+            throw new CancellationException("solve cancelled");
+        }
+    }
+
+    // solves and returns the path together with its SolverMetrics (also recorded as a JFR event);
+    // the metrics are labelled with the algorithm, as several algorithms share one solver class
+    default SolveResult solveWithMetrics(Algorithm algorithm, MazeGrid grid) {
+        return SolverMetrics.measure(algorithm, this, grid);
+    }
+
+    // the same for a streamed solve (solveInto); the metrics include the time spent in the sink
+    default SolverMetrics solveWithMetrics(Algorithm algorithm, MazeGrid grid, PathSink sink) {
+        return SolverMetrics.measure(algorithm, this, grid, sink);
+    }
+}
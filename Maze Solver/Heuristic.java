@@ -0,0 +1,15 @@
+/* HEURISTICS FOR A* / GREEDY SEARCH */
+// Estimates the number of steps left from (row, col) to the end.
+// For A* to return a shortest path the estimate must never be more than the real distance.
+// If it is also consistent (never drops by more than 1 from a cell to its neighbour, like these
+// two) every cell is expanded at most once; otherwise A* may have to expand cells again.
+@FunctionalInterface
+public interface Heuristic {
+    int estimate(int row, int col, int endRow, int endCol);
+
+    // exact distance on an empty 4-connected grid: the default
+    Heuristic MANHATTAN = (row, col, endRow, endCol) -> Math.abs(row - endRow) + Math.abs(col - endCol);
+
+    // always 0: A* then behaves like plain BFS/Dijkstra
+    Heuristic ZERO = (row, col, endRow, endCol) -> 0;
+}
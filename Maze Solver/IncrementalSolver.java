@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* INCREMENTAL SOLVER (LPA*) */
+// Keeps the shortest path of one maze up to date while its walls are edited, with Lifelong
+// Planning A* (Koenig & Likhachev). Every cell has
+//   g    its cost from the start as last settled
+//   rhs  one step of lookahead: the cheapest g of an open neighbour plus the cost of this cell
+// and only the cells where the two disagree ("inconsistent") wait in the heap. The first solve is
+// plain A*; after an edit only the edited cell and its neighbours get a new rhs, and the search
+// repairs g outwards from them until the end is consistent again, so a wall toggled away from
+// the path costs a handful of cells instead of a whole solve. Edits that cut off or shorten the
+// path itself repair as far as the path costs change (up to the whole region behind the cut).
+//
+// S and E stay where they are (D* Lite is the same idea for a start that moves). Costs are the
+// cell costs (entering a cell costs grid.cost(cell)); a cell that is opened costs 1.
+// Not thread-safe: one editor per maze, edits applied in order.
+public class IncrementalSolver {
+    private static final int INFINITY = Integer.MAX_VALUE / 4; // unreachable; still fits in a key with the heuristic
+
+    private final BitMazeGrid grid;
+    private final int rows;
+    private final int cols;
+    private final int start;
+    private final int end;
+    private final int endRow;
+    private final int endCol;
+    private final int[] g;
+    private final int[] rhs;
+    private final IntMinHeap open = new IntMinHeap();
+    private int[] path;          // cells of the path after the last solve, null if there is none
+    private boolean pathKnown;   // false until the first solve
+    private int expandedCount;   // cells taken off the heap by the last solve
+    private long totalExpanded;  // ... by every solve so far
+
+    // takes over the grid: edit it only through setOpen from now on
+    public IncrementalSolver(BitMazeGrid grid) {
+        this.grid = grid;
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.start = grid.start();
+        this.end = grid.end();
+        this.endRow = end < 0 ? 0 : end / cols;
+        this.endCol = end < 0 ? 0 : end % cols;
+        int cells = grid.cellCount();
+        g = new int[cells];
+        rhs = new int[cells];
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear(cells);
+        if (start >= 0 && end >= 0 && grid.isOpen(start)) {
+            rhs[start] = 0;
+            open.add(start, key(start));
+        }
+    }
+
+    public BitMazeGrid grid() {
+        return grid;
+    }
+
+    /* EDITING */
+
+    // turns a cell into a wall or an open cell; the next solve() repairs the path.
+    // S and E can't be walled in.
+    public void setOpen(int cell, boolean isOpen) {
+        if (cell == start || cell == end) {
+            throw new IllegalArgumentException("the start and end cells can't be edited");
+        }
+        if (grid.isOpen(cell) == isOpen) {
+            return;
+        }
+        grid.setWall(cell, !isOpen);
+        if (isOpen && grid.isWeighted()) grid.setCost(cell, 1);
+
+        // the cell's own rhs changes, and so does every neighbour's (it can or can't come from here now)
+        updateCell(cell);
+        int row = cell / cols;
+        int col = cell - row * cols;
+        if (row > 0) updateCell(cell - cols);
+        if (col + 1 < cols) updateCell(cell + 1);
+        if (row + 1 < rows) updateCell(cell + cols);
+        if (col > 0) updateCell(cell - 1);
+    }
+
+    /* SOLVING */
+
+    // repairs the search after the edits since the last call; returns the path length in steps,
+    // -1 if there is no path
+    public int solve() {
+        expandedCount = 0;
+        if (start < 0 || end < 0) return -1;
+        while (!open.isEmpty() && (open.peekKey() < key(end) || rhs[end] != g[end])) {
+            int cell = open.poll();
+            if ((++expandedCount & (GridSolver.CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            if (g[cell] > rhs[cell]) {
+                g[cell] = rhs[cell]; // got cheaper: settle it
+            } else {
+                g[cell] = INFINITY;  // got dearer: forget it and work it out again
+                updateCell(cell);
+            }
+            int row = cell / cols;
+            int col = cell - row * cols;
+            if (row > 0) updateCell(cell - cols);
+            if (col + 1 < cols) updateCell(cell + 1);
+            if (row + 1 < rows) updateCell(cell + cols);
+            if (col > 0) updateCell(cell - 1);
+        }
+        totalExpanded += expandedCount;
+        // nothing was expanded: every g is as before, and so is the path
+        if (expandedCount > 0 || !pathKnown) {
+            path = g[end] >= INFINITY ? null : walkPath();
+            pathKnown = true;
+        }
+        return path == null ? -1 : path.length - 1;
+    }
+
+    // recomputes rhs and puts the cell in the heap if it is inconsistent (takes it out if not)
+    private void updateCell(int cell) {
+        if (cell != start) {
+            rhs[cell] = grid.isOpen(cell) ? cheapestNeighbour(cell) : INFINITY;
+        }
+        boolean waiting = open.contains(cell);
+        if (g[cell] != rhs[cell]) {
+            if (waiting) {
+                open.changeKey(cell, key(cell));
+            } else {
+                open.add(cell, key(cell));
+            }
+        } else if (waiting) {
+            open.remove(cell);
+        }
+    }
+
+    // cheapest g of an open neighbour plus the cost of entering this cell
+    private int cheapestNeighbour(int cell) {
+        int best = INFINITY;
+        int row = cell / cols;
+        int col = cell - row * cols;
+        if (row > 0) best = cheaper(best, cell - cols);
+        if (col + 1 < cols) best = cheaper(best, cell + 1);
+        if (row + 1 < rows) best = cheaper(best, cell + cols);
+        if (col > 0) best = cheaper(best, cell - 1);
+        return best >= INFINITY ? INFINITY : best + grid.cost(cell);
+    }
+
+    private int cheaper(int best, int neighbour) {
+        return grid.isOpen(neighbour) && g[neighbour] < best ? g[neighbour] : best;
+    }
+
+    // [min(g, rhs) + Manhattan distance to E, min(g, rhs)] packed so a plain long comparison
+    // orders by the first part, then the second
+    private long key(int cell) {
+        int best = Math.min(g[cell], rhs[cell]);
+        int estimate = Math.abs(cell / cols - endRow) + Math.abs(cell % cols - endCol);
+        return ((long) (best + estimate) << 32) | best;
+    }
+
+    /* PATH */
+
+    // the path after the last solve, start first, as cell indices; null if there is none.
+    // The same array comes back until a solve changes the path, so don't modify it.
+    public int[] pathCells() {
+        return path;
+    }
+
+    // the same as Position objects with parent links, like a solver's result
+    public List<MazeSolver.Position> path() {
+        if (path == null) return null;
+        List<MazeSolver.Position> positions = new ArrayList<>(path.length);
+        MazeSolver.Position previous = null;
+        for (int cell : path) {
+            previous = new MazeSolver.Position(cell / cols, cell % cols, previous);
+            positions.add(previous);
+        }
+        return positions;
+    }
+
+    // follows the settled g values back from the end
+    private int[] walkPath() {
+        int[] cells = new int[256];
+        int length = 0;
+        for (int cell = end; ; cell = previous(cell)) {
+            if (length == cells.length) {
+                if (length > grid.cellCount()) {
+                    throw new IllegalStateException("search state is inconsistent");
+                }
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = cell;
+            if (cell == start) break;
+        }
+        int[] forward = new int[length];
+        for (int i = 0; i < length; i++) {
+            forward[i] = cells[length - 1 - i];
+        }
+        return forward;
+    }
+
+    // the neighbour the path comes from: the open one the cell's g was settled through
+    private int previous(int cell) {
+        int best = -1;
+        int row = cell / cols;
+        int col = cell - row * cols;
+        if (row > 0) best = lower(best, cell - cols);
+        if (col + 1 < cols) best = lower(best, cell + 1);
+        if (row + 1 < rows) best = lower(best, cell + cols);
+        if (col > 0) best = lower(best, cell - 1);
+        return best;
+    }
+
+    private int lower(int best, int neighbour) {
+        return grid.isOpen(neighbour) && (best < 0 || g[neighbour] < g[best]) ? neighbour : best;
+    }
+
+    /* STATISTICS */
+
+    // cells expanded by the last solve (the whole search the first time, the repair after that)
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    public long getTotalExpanded() {
+        return totalExpanded;
+    }
+
+    // cost of the path (its length on an unweighted maze), -1 if there is none
+    public int getPathCost() {
+        return end < 0 || g[end] >= INFINITY ? -1 : g[end];
+    }
+}
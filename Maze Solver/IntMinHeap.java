@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+/* PRIMITIVE BINARY HEAP */
+// Min-heap of cell indices ordered by a long key, with no boxing.
+// pos[] remembers where each cell sits in the heap so its key can be lowered in place.
+// The arrays are kept between solves and only grow when a bigger maze comes in.
+public class IntMinHeap {
+    private int[] heap = new int[0];   // cells in heap order
+    private long[] keys = new long[0]; // keys[cell]
+    private int[] pos = new int[0];    // pos[cell] = slot in heap, -1 once removed
+    private int size;
+
+    // empties the heap and makes room for cells 0 .. cells - 1
+    public void reset(int cells) {
+        if (pos.length < cells) {
+            heap = new int[cells];
+            keys = new long[cells];
+            pos = new int[cells];
+        }
+        size = 0;
+    }
+
+    // the same, and forgets every earlier add, so contains() is right for any cell; for heaps that
+    // live across many searches (IncrementalSolver) rather than one
+    public void clear(int cells) {
+        reset(cells);
+        Arrays.fill(pos, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // true if the cell was added since the last reset and hasn't been polled yet
+    // (only meaningful for cells that have been added at least once)
+    public boolean contains(int cell) {
+        return pos[cell] >= 0;
+    }
+
+    public void add(int cell, long key) {
+        keys[cell] = key;
+        heap[size] = cell;
+        pos[cell] = size;
+        siftUp(size++);
+    }
+
+    // lowers the key of a cell that is still in the heap
+    public void decreaseKey(int cell, long key) {
+        keys[cell] = key;
+        siftUp(pos[cell]);
+    }
+
+    // raises or lowers the key of a cell that is still in the heap
+    public void changeKey(int cell, long key) {
+        long old = keys[cell];
+        keys[cell] = key;
+        if (key < old) {
+            siftUp(pos[cell]);
+        } else {
+            siftDown(pos[cell]);
+        }
+    }
+
+    // takes a cell that is still in the heap out of it
+    public void remove(int cell) {
+        int slot = pos[cell];
+        pos[cell] = -1;
+        size--;
+        if (slot < size) {
+            int last = heap[size];
+            heap[slot] = last;
+            pos[last] = slot;
+            siftDown(slot);
+            siftUp(pos[last]);
+        }
+    }
+
+    // smallest key in the heap (the heap must not be empty)
+    public long peekKey() {
+        return keys[heap[0]];
+    }
+
+    // removes and returns the cell with the smallest key
+    public int poll() {
+        int top = heap[0];
+        pos[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int slot) {
+        int cell = heap[slot];
+        long key = keys[cell];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parentCell = heap[parentSlot];
+            if (keys[parentCell] <= key) break;
+            heap[slot] = parentCell;
+            pos[parentCell] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = cell;
+        pos[cell] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int cell = heap[slot];
+        long key = keys[cell];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childCell = heap[child];
+            if (key <= keys[childCell]) break;
+            heap[slot] = childCell;
+            pos[childCell] = slot;
+            slot = child;
+        }
+        heap[slot] = cell;
+        pos[cell] = slot;
+    }
+}
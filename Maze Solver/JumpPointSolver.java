@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/* JUMP POINT SEARCH (4-CONNECTED) */
+// A* that skips over the cells between "interesting" cells instead of putting each one on the heap.
+// Many shortest paths through an open area only differ in the order of their moves, so only one
+// order is searched: vertical moves can turn sideways anywhere, but a horizontal run only turns up
+// or down where it has to (the cell up/down from it is open but the one diagonally behind is a
+// wall, so turning one cell earlier wasn't possible). That makes
+//   - a horizontal jump run until the end, a wall, or a cell with such a forced turn
+//   - a vertical jump run until the end, a wall, or a cell from which a horizontal jump finds something
+// and only the cells where a jump stops (jump points) go on the heap. Path lengths are the same as
+// BFS; on open maps far fewer cells are expanded (in a perfect maze nearly every cell is a jump
+// point, so there it behaves like plain A*).
+//
+// The turns allowed at a jump point depend on the direction it was entered from, and a cell can be
+// entered from several directions at the same (shortest) cost. Each cell keeps a small mask of
+// those directions and is expanded again if a new one turns up after it was expanded.
+// The returned path is expanded back to every cell in between.
+public class JumpPointSolver implements GridSolver {
+    // directions as bits, in MazeSolver.DIRECTIONS order
+    private static final int UP = 1;
+    private static final int RIGHT = 2;
+    private static final int DOWN = 4;
+    private static final int LEFT = 8;
+    private static final int ALL = UP | RIGHT | DOWN | LEFT;
+
+    private final IntMinHeap open = new IntMinHeap();
+    private int[] parent = new int[0]; // parent[cell] = jump point it was reached from
+    private int[] cost = new int[0];   // steps from the start (valid once seen)
+    private byte[] entered = new byte[0]; // low 4 bits: directions the cell was entered in at that cost,
+                                          // high 4 bits: the ones already expanded
+    private long[] seen = new long[0]; // bitset: cell has been added to the heap
+    private MazeGrid grid;
+    private int rows;
+    private int cols;
+    private int end;
+    private int endRow;
+    private int endCol;
+    private int expandedCount;
+    private int visitedCount;
+    private int maxFrontier;
+    private long reconstructNanos;
+    private SearchEvents events; // null unless a SearchListener is set
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        try {
+            List<MazeSolver.Position> path = search(grid);
+            if (events != null) events.flush();
+            return path;
+        } finally {
+            this.grid = null;
+        }
+    }
+
+    private List<MazeSolver.Position> search(MazeGrid grid) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        int start = grid.start();
+        end = grid.end();
+        if (start < 0 || end < 0) {
+            return null; // invalid maze
+        }
+
+        this.grid = grid;
+        rows = grid.rows();
+        cols = grid.cols();
+        int cells = rows * cols;
+        ensureCapacity(cells);
+        Arrays.fill(seen, 0, (cells + 63) >>> 6, 0L);
+        open.reset(cells);
+        endRow = end / cols;
+        endCol = end % cols;
+
+        cost[start] = 0;
+        parent[start] = start;
+        entered[start] = 0;
+        seen[start >>> 6] |= 1L << start;
+        visitedCount = 1;
+        if (events != null) events.frontier(start);
+        open.add(start, 0);
+        maxFrontier = 1;
+
+        while (!open.isEmpty()) {
+            int cell = open.poll();
+            if ((++expandedCount & (CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            if (events != null) events.expanded(cell);
+            if (cell == end) {
+                return buildPath(start, end);
+            }
+
+            // directions to jump in: the start jumps every way, other cells depend on how they were entered
+            int mask = entered[cell] & 0xFF;
+            int fresh = mask & ~(mask >>> 4) & ALL;
+            entered[cell] = (byte) (mask | fresh << 4);
+            int row = cell / cols;
+            int col = cell - row * cols;
+            int jumps = cell == start ? ALL : 0;
+            if ((fresh & (UP | DOWN)) != 0) jumps |= RIGHT | LEFT; // vertical runs turn anywhere
+            jumps |= fresh & (UP | DOWN | RIGHT | LEFT);           // straight on
+            if ((fresh & RIGHT) != 0) jumps |= forcedTurns(row, col, 1);
+            if ((fresh & LEFT) != 0) jumps |= forcedTurns(row, col, -1);
+
+            if ((jumps & UP) != 0) addJump(cell, jumpVertical(row, col, -1), UP);
+            if ((jumps & RIGHT) != 0) addJump(cell, jumpHorizontal(row, col, 1), RIGHT);
+            if ((jumps & DOWN) != 0) addJump(cell, jumpVertical(row, col, 1), DOWN);
+            if ((jumps & LEFT) != 0) addJump(cell, jumpHorizontal(row, col, -1), LEFT);
+            if (open.size() > maxFrontier) maxFrontier = open.size();
+        }
+
+        return null; // no path found
+    }
+
+    /* JUMPS */
+
+    // first jump point moving sideways from (row, col), -1 if the run hits a wall first
+    private int jumpHorizontal(int row, int col, int colStep) {
+        while (true) {
+            col += colStep;
+            if (!isOpen(row, col)) return -1;
+            int cell = row * cols + col;
+            if (cell == end || forcedTurns(row, col, colStep) != 0) {
+                return cell;
+            }
+        }
+    }
+
+    // first jump point moving up or down from (row, col), -1 if the run hits a wall first
+    private int jumpVertical(int row, int col, int rowStep) {
+        while (true) {
+            row += rowStep;
+            if (!isOpen(row, col)) return -1;
+            int cell = row * cols + col;
+            if (cell == end || jumpHorizontal(row, col, 1) >= 0 || jumpHorizontal(row, col, -1) >= 0) {
+                return cell;
+            }
+        }
+    }
+
+    // UP and/or DOWN if a horizontal run at (row, col) has to turn there: the cell above/below
+    // is open but the one diagonally behind it is not
+    private int forcedTurns(int row, int col, int colStep) {
+        int turns = 0;
+        if (isOpen(row - 1, col) && !isOpen(row - 1, col - colStep)) turns |= UP;
+        if (isOpen(row + 1, col) && !isOpen(row + 1, col - colStep)) turns |= DOWN;
+        return turns;
+    }
+
+    private boolean isOpen(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols && grid.isOpen(row * cols + col);
+    }
+
+    // puts a jump point on the heap, lowers its cost if this way is shorter, or remembers
+    // another direction it can be entered in at the same cost
+    private void addJump(int from, int cell, int direction) {
+        if (cell < 0) {
+            return;
+        }
+        int nextCost = cost[from] + Math.abs(cell / cols - from / cols) + Math.abs(cell % cols - from % cols);
+        int estimate = Math.abs(cell / cols - endRow) + Math.abs(cell % cols - endCol);
+        long key = ((long) (nextCost + estimate) << 32) | estimate;
+        if ((seen[cell >>> 6] & (1L << cell)) == 0) {
+            seen[cell >>> 6] |= 1L << cell;
+            visitedCount++;
+            if (events != null) events.frontier(cell);
+            cost[cell] = nextCost;
+            parent[cell] = from;
+            entered[cell] = (byte) direction;
+            open.add(cell, key);
+        } else if (nextCost < cost[cell]) {
+            // only happens while the cell is still waiting (the heuristic is consistent)
+            cost[cell] = nextCost;
+            parent[cell] = from;
+            entered[cell] = (byte) direction;
+            open.decreaseKey(cell, key);
+        } else if (nextCost == cost[cell] && (entered[cell] & direction) == 0) {
+            entered[cell] |= (byte) direction;
+            if (!open.contains(cell)) {
+                open.add(cell, key); // already expanded: again for the new direction
+            }
+        }
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    // walks the jump points back to the start and fills in the straight runs between them
+    private List<MazeSolver.Position> buildPath(int start, int end) {
+        long startTime = System.nanoTime();
+        List<MazeSolver.Position> path = new ArrayList<>(cost[end] + 1);
+        for (int cell = end; cell != start; cell = parent[cell]) {
+            int from = parent[cell];
+            int step = cell / cols == from / cols ? (from < cell ? 1 : -1) : (from < cell ? cols : -cols);
+            for (int c = cell; c != from; c -= step) {
+                path.add(new MazeSolver.Position(c / cols, c % cols));
+            }
+        }
+        path.add(new MazeSolver.Position(start / cols, start % cols));
+        Collections.reverse(path);
+        for (int i = 1; i < path.size(); i++) {
+            path.get(i).parent = path.get(i - 1);
+        }
+        reconstructNanos = System.nanoTime() - startTime;
+        return path;
+    }
+
+    private void ensureCapacity(int cells) {
+        if (parent.length < cells) {
+            parent = new int[cells];
+            cost = new int[cells];
+            entered = new byte[cells];
+            seen = new long[(cells + 63) >>> 6];
+        }
+    }
+}
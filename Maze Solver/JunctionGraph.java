@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* JUNCTION GRAPH */
+// The maze with its corridors contracted. Generated mazes are mostly one cell wide, so most open
+// cells have exactly two open neighbours and a search can only walk straight through them. Here
+// only the cells where something can happen become nodes: junctions (3 or 4 open neighbours) plus
+// S and E. Every corridor between two nodes becomes one weighted edge (its length in steps and
+// the cost of the cells it enters). Corridors that end in a dead end are dropped, since no path
+// from S to E can use them, and so are corridors that loop back to the node they started at.
+//
+// The graph is stored in CSR (compressed sparse row) arrays: the edges of node n are
+// offsets[n] .. offsets[n + 1] - 1 in targets/lengths/weights/directions, so it is a handful of
+// int[]s, no objects per node or edge. Only the first step of each corridor is kept; the cells of
+// a route are found again by walking the corridors on the grid (Route.forEachCell), so they are
+// only produced when the caller asks for them. The grid must not change while the graph is used.
+//
+// Built in one pass over the cells plus one walk along each corridor from both ends. Searched by
+// JunctionSolver.
+public final class JunctionGraph {
+    private final MazeGrid grid;
+    private final int rows;
+    private final int cols;
+    private final int[] nodeCells;   // cell of each node, in ascending order
+    private final int[] offsets;     // edges of node n: offsets[n] .. offsets[n + 1] - 1
+    private final int[] targets;     // node at the other end of the corridor
+    private final int[] lengths;     // steps along the corridor
+    private final int[] weights;     // cost of the cells entered along it, null unless the maze is weighted
+    private final byte[] directions; // first step out of the node, index into MazeSolver.DIRECTIONS
+    private final int startNode;     // -1 if the maze has no start / end
+    private final int endNode;
+    private final int openCells;
+
+    private JunctionGraph(MazeGrid grid, int[] nodeCells, int[] offsets, int[] targets, int[] lengths, int[] weights,
+                          byte[] directions, int openCells) {
+        this.grid = grid;
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.nodeCells = nodeCells;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.lengths = lengths;
+        this.weights = weights;
+        this.directions = directions;
+        this.openCells = openCells;
+        this.startNode = grid.start() < 0 || grid.end() < 0 ? -1 : nodeOf(grid.start());
+        this.endNode = grid.start() < 0 || grid.end() < 0 ? -1 : nodeOf(grid.end());
+    }
+
+    /* BUILDING */
+
+    public static JunctionGraph build(MazeGrid grid) {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        int start = grid.start();
+        int end = grid.end();
+
+        // nodes: junctions, S and E, found in cell order so the array comes out sorted
+        int[] nodes = new int[64];
+        int nodeCount = 0;
+        int openCells = 0;
+        for (int row = 0, cell = 0; row < rows; row++) {
+            GridSolver.checkCancelled();
+            for (int col = 0; col < cols; col++, cell++) {
+                if (!grid.isOpen(cell)) continue;
+                openCells++;
+                if (cell == start || cell == end || Integer.bitCount(openSides(grid, cell, row, col)) >= 3) {
+                    if (nodeCount == nodes.length) nodes = Arrays.copyOf(nodes, nodeCount * 2);
+                    nodes[nodeCount++] = cell;
+                }
+            }
+        }
+        nodes = Arrays.copyOf(nodes, nodeCount);
+
+        // edges: walk every corridor leaving each node until the next node
+        boolean weighted = grid.isWeighted();
+        int capacity = Math.max(16, nodeCount * 3);
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = new int[capacity];
+        int[] lengths = new int[capacity];
+        int[] weights = weighted ? new int[capacity] : lengths;
+        byte[] directions = new byte[capacity];
+        int edges = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if ((node & (GridSolver.CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            offsets[node] = edges;
+            int from = nodes[node];
+            int fromRow = from / cols;
+            int fromCol = from - fromRow * cols;
+            int sides = openSides(grid, from, fromRow, fromCol);
+            for (int first = 0; first < 4; first++) {
+                if ((sides & (1 << first)) == 0) continue;
+                int dir = first;
+                int row = fromRow + MazeSolver.DIRECTIONS[dir][0];
+                int col = fromCol + MazeSolver.DIRECTIONS[dir][1];
+                int current = row * cols + col;
+                int length = 1;
+                int weight = weighted ? grid.cost(current) : 0;
+                boolean reached;
+                while (true) {
+                    int open = openSides(grid, current, row, col);
+                    if (current == start || current == end || Integer.bitCount(open) >= 3) {
+                        reached = true;
+                        break;
+                    }
+                    int onward = open & ~(1 << ((dir + 2) & 3)); // every open side but the way back
+                    if (onward == 0) {
+                        reached = false; // dead end
+                        break;
+                    }
+                    dir = Integer.numberOfTrailingZeros(onward);
+                    row += MazeSolver.DIRECTIONS[dir][0];
+                    col += MazeSolver.DIRECTIONS[dir][1];
+                    current = row * cols + col;
+                    length++;
+                    if (weighted) weight += grid.cost(current);
+                }
+                if (!reached || current == from) continue;
+
+                if (edges == targets.length) {
+                    int grown = edges * 2;
+                    targets = Arrays.copyOf(targets, grown);
+                    lengths = Arrays.copyOf(lengths, grown);
+                    weights = weighted ? Arrays.copyOf(weights, grown) : lengths;
+                    directions = Arrays.copyOf(directions, grown);
+                }
+                targets[edges] = Arrays.binarySearch(nodes, current);
+                lengths[edges] = length;
+                if (weighted) weights[edges] = weight;
+                directions[edges] = (byte) first;
+                edges++;
+            }
+        }
+        offsets[nodeCount] = edges;
+        return new JunctionGraph(grid, nodes, offsets, Arrays.copyOf(targets, edges), Arrays.copyOf(lengths, edges),
+                weighted ? Arrays.copyOf(weights, edges) : null, Arrays.copyOf(directions, edges), openCells);
+    }
+
+    // bit d set if the neighbour in MazeSolver.DIRECTIONS[d] is open (up, right, down, left)
+    private static int openSides(MazeGrid grid, int cell) {
+        int row = cell / grid.cols();
+        return openSides(grid, cell, row, cell - row * grid.cols());
+    }
+
+    private static int openSides(MazeGrid grid, int cell, int row, int col) {
+        int cols = grid.cols();
+        int sides = 0;
+        if (row > 0 && grid.isOpen(cell - cols)) sides |= 1;
+        if (col + 1 < cols && grid.isOpen(cell + 1)) sides |= 2;
+        if (row + 1 < grid.rows() && grid.isOpen(cell + cols)) sides |= 4;
+        if (col > 0 && grid.isOpen(cell - 1)) sides |= 8;
+        return sides;
+    }
+
+    // the neighbouring cell in direction dir (no bounds check: only called for open sides)
+    private static int step(MazeGrid grid, int cell, int dir) {
+        return cell + MazeSolver.DIRECTIONS[dir][0] * grid.cols() + MazeSolver.DIRECTIONS[dir][1];
+    }
+
+    /* SIZE */
+
+    public MazeGrid grid() {
+        return grid;
+    }
+
+    public int nodeCount() {
+        return nodeCells.length;
+    }
+
+    // directed edges: every corridor is stored once from each end
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    // open cells of the maze, for comparing with nodeCount
+    public int openCellCount() {
+        return openCells;
+    }
+
+    /* NODES AND EDGES */
+
+    // node of S / E, -1 if the maze has no start or end
+    public int startNode() {
+        return startNode;
+    }
+
+    public int endNode() {
+        return endNode;
+    }
+
+    public int cellOf(int node) {
+        return nodeCells[node];
+    }
+
+    // node at this cell, -1 if the cell isn't a node
+    public int nodeOf(int cell) {
+        int node = Arrays.binarySearch(nodeCells, cell);
+        return node < 0 ? -1 : node;
+    }
+
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    // one past the last edge of the node
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public int length(int edge) {
+        return lengths[edge];
+    }
+
+    // cost of the cells the corridor enters, target included (its length on an unweighted maze)
+    public int weight(int edge) {
+        return weights == null ? lengths[edge] : weights[edge];
+    }
+
+    // searches the graph from S to E with a new JunctionSolver; null if there is no path
+    public Route solve() {
+        return new JunctionSolver().route(this);
+    }
+
+    /* ROUTES */
+
+    // A path through the graph as the corridors taken from S. The cells are only produced when
+    // forEachCell / toPositions is called, by walking those corridors on the grid again.
+    public static final class Route {
+        private final JunctionGraph graph;
+        private final int[] edges; // corridors in order from the start
+        private final int steps;
+        private final long cost;
+
+        Route(JunctionGraph graph, int[] edges) {
+            this.graph = graph;
+            this.edges = edges;
+            int steps = 0;
+            long cost = 0;
+            for (int edge : edges) {
+                steps += graph.length(edge);
+                cost += graph.weight(edge);
+            }
+            this.steps = steps;
+            this.cost = cost;
+        }
+
+        // path length in steps (cells on the path minus one)
+        public int getSteps() {
+            return steps;
+        }
+
+        // total cost, as MazeSolver.pathCost would count it
+        public long getCost() {
+            return cost;
+        }
+
+        // corridors taken (one less than the nodes on the route)
+        public int getCorridors() {
+            return edges.length;
+        }
+
+        // sends every cell of the path to the sink, start first
+        public void forEachCell(PathSink sink) {
+            MazeGrid grid = graph.grid;
+            int cell = grid.start();
+            sink.cell(cell);
+            for (int edge : edges) {
+                int target = graph.nodeCells[graph.targets[edge]];
+                int dir = graph.directions[edge];
+                cell = step(grid, cell, dir);
+                sink.cell(cell);
+                while (cell != target) {
+                    // inside a corridor: the one open side that isn't the way back
+                    dir = Integer.numberOfTrailingZeros(openSides(grid, cell) & ~(1 << ((dir + 2) & 3)));
+                    cell = step(grid, cell, dir);
+                    sink.cell(cell);
+                }
+            }
+        }
+
+        // the path as a list with parent links, like a solver's result
+        public List<MazeSolver.Position> toPositions() {
+            List<MazeSolver.Position> path = new ArrayList<>(steps + 1);
+            int cols = graph.cols;
+            forEachCell(cell -> {
+                MazeSolver.Position position = new MazeSolver.Position(cell / cols, cell % cols);
+                if (!path.isEmpty()) position.parent = path.get(path.size() - 1);
+                path.add(position);
+            });
+            return path;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nodeCells.length + " nodes, " + targets.length + " edges (" + openCells + " open cells, "
+                + rows + " x " + cols + ")";
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+import java.util.List;
+
+/* JUNCTION GRAPH SEARCH */
+// A* over a JunctionGraph instead of over cells: a corridor of any length is one edge, so a
+// perfect maze is searched through its junctions only. Edge weights are the cell costs, so the
+// route is the cheapest one on weighted mazes (and the shortest in steps on every other maze);
+// the Manhattan distance between two nodes never exceeds the cost of the corridors between them,
+// so it stays a valid heuristic.
+//
+// As a GridSolver it contracts the maze on every solve (one pass over the cells, comparable to a
+// BFS), so the payoff comes from building the graph once and calling route(graph) for every
+// solve of the same maze. Counts are in nodes, not cells. The node arrays are reused between solves.
+public class JunctionSolver implements GridSolver {
+    private final IntMinHeap open = new IntMinHeap();
+    private int[] cost = new int[0];       // cost from the start (valid once seen)
+    private int[] parentEdge = new int[0]; // edge the node was reached through
+    private int[] parentNode = new int[0];
+    private long[] seen = new long[0];     // bitset: node has been added to the heap
+    private int expandedCount;
+    private int visitedCount;
+    private int maxFrontier;
+    private long reconstructNanos;
+    private SearchEvents events; // null unless a SearchListener is set
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        JunctionGraph.Route route = route(JunctionGraph.build(grid));
+        if (route == null) return null;
+        long startTime = System.nanoTime();
+        List<MazeSolver.Position> path = route.toPositions();
+        reconstructNanos = System.nanoTime() - startTime;
+        return path;
+    }
+
+    // the route's cells go straight from the corridor walk into the sink
+    @Override
+    public int solveInto(MazeGrid grid, PathSink sink) {
+        JunctionGraph.Route route = route(JunctionGraph.build(grid));
+        if (route == null) return -1;
+        long startTime = System.nanoTime();
+        route.forEachCell(sink);
+        reconstructNanos = System.nanoTime() - startTime;
+        return route.getSteps();
+    }
+
+    // cheapest route from S to E, null if there is none
+    public JunctionGraph.Route route(JunctionGraph graph) {
+        JunctionGraph.Route route = search(graph);
+        if (events != null) events.flush();
+        return route;
+    }
+
+    private JunctionGraph.Route search(JunctionGraph graph) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        int start = graph.startNode();
+        int end = graph.endNode();
+        if (start < 0 || end < 0) {
+            return null; // no start or end (or one of them is a wall)
+        }
+
+        int nodes = graph.nodeCount();
+        ensureCapacity(nodes);
+        Arrays.fill(seen, 0, (nodes + 63) >>> 6, 0L);
+        open.reset(nodes);
+        int cols = graph.grid().cols();
+        int endCell = graph.cellOf(end);
+        int endRow = endCell / cols;
+        int endCol = endCell % cols;
+
+        cost[start] = 0;
+        parentEdge[start] = -1;
+        seen[start >>> 6] |= 1L << start;
+        visitedCount = 1;
+        if (events != null) events.frontier(graph.cellOf(start));
+        open.add(start, key(0, estimate(graph.cellOf(start), cols, endRow, endCol)));
+        maxFrontier = 1;
+
+        while (!open.isEmpty()) {
+            int node = open.poll();
+            if ((++expandedCount & (CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            if (events != null) events.expanded(graph.cellOf(node));
+            if (node == end) {
+                return buildRoute(graph, start, end);
+            }
+
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                int next = graph.target(edge);
+                int nextCost = cost[node] + graph.weight(edge);
+                boolean isNew = (seen[next >>> 6] & (1L << next)) == 0;
+                if (!isNew && (nextCost >= cost[next] || !open.contains(next))) continue;
+
+                cost[next] = nextCost;
+                parentEdge[next] = edge;
+                parentNode[next] = node;
+                long key = key(nextCost, estimate(graph.cellOf(next), cols, endRow, endCol));
+                if (isNew) {
+                    seen[next >>> 6] |= 1L << next;
+                    visitedCount++;
+                    if (events != null) events.frontier(graph.cellOf(next));
+                    open.add(next, key);
+                } else {
+                    open.decreaseKey(next, key);
+                }
+            }
+            if (open.size() > maxFrontier) maxFrontier = open.size();
+        }
+
+        return null; // no path found
+    }
+
+    private static int estimate(int cell, int cols, int endRow, int endCol) {
+        return Math.abs(cell / cols - endRow) + Math.abs(cell % cols - endCol);
+    }
+
+    // cost + estimate first, then the estimate as a tie-breaker (prefer nodes closer to the end)
+    private static long key(int costSoFar, int estimate) {
+        return ((long) (costSoFar + estimate) << 32) | estimate;
+    }
+
+    // the corridors from the start, found by following the parent edges back from the end
+    private JunctionGraph.Route buildRoute(JunctionGraph graph, int start, int end) {
+        int corridors = 0;
+        for (int node = end; node != start; node = parentNode[node]) {
+            corridors++;
+        }
+        int[] edges = new int[corridors];
+        for (int node = end; node != start; node = parentNode[node]) {
+            edges[--corridors] = parentEdge[node];
+        }
+        return new JunctionGraph.Route(graph, edges);
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    // time the last solve spent walking the route's corridors back into cells
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (cost.length < nodes) {
+            cost = new int[nodes];
+            parentEdge = new int[nodes];
+            parentNode = new int[nodes];
+            seen = new long[(nodes + 63) >>> 6];
+        }
+    }
+}
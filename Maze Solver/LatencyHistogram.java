@@ -0,0 +1,97 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/* LATENCY HISTOGRAM */
+// Counts latencies in log-scaled buckets of microseconds: 4 buckets per power of two, so a bucket
+// is at most 25% wide and 256 counters cover everything from 1 us up. Recording is one atomic
+// increment, safe from any number of threads; percentiles are read from the counts (the upper
+// edge of the bucket, so they never understate).
+final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 4; // per power of two
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    // 0-3 us get a bucket each; after that bucket 4 * (log2 - 1) + the next two bits
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int log2 = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (log2 - 2)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS * (log2 - 1) + sub;
+    }
+
+    // largest value (us) that lands in the bucket
+    static long upperMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int log2 = bucket / SUB_BUCKETS + 1;
+        long first = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (log2 - 2);
+        return first + (1L << (log2 - 2)) - 1;
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    // latency (us) that the fraction of requests stays at or below, 0 if nothing was recorded
+    long percentileMicros(double fraction) {
+        long[] snapshot = snapshot();
+        long total = 0;
+        for (long c : snapshot) total += c;
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) return Math.min(upperMicros(bucket), maxMicros.get());
+        }
+        return maxMicros.get();
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+        }
+        return snapshot;
+    }
+
+    // {"count":..,"meanMs":..,"p50Ms":..,"p90Ms":..,"p99Ms":..,"maxMs":..,"buckets":[[upper ms, count], ...]}
+    // (only the buckets that have counts)
+    String toJson() {
+        long n = count.sum();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"count\":").append(n)
+                .append(",\"meanMs\":").append(millis(n == 0 ? 0 : totalMicros.sum() / n))
+                .append(",\"p50Ms\":").append(millis(percentileMicros(0.50)))
+                .append(",\"p90Ms\":").append(millis(percentileMicros(0.90)))
+                .append(",\"p99Ms\":").append(millis(percentileMicros(0.99)))
+                .append(",\"maxMs\":").append(millis(maxMicros.get()))
+                .append(",\"buckets\":[");
+        long[] snapshot = snapshot();
+        boolean first = true;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (snapshot[bucket] == 0) continue;
+            if (!first) json.append(',');
+            first = false;
+            json.append('[').append(millis(upperMicros(bucket))).append(',').append(snapshot[bucket]).append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* LOAD GENERATOR */
+// Drives a MazeServer with solve requests and reports latency percentiles and throughput.
+//
+//   java MazeSolver loadtest [--url http://localhost:8080] [--requests 2000] [--concurrency 64]
+//                            [--size 101] [--mazes 32] [--algorithm BFS] [--seed 1]
+//
+// --mazes different mazes of --size x --size are generated up front (seeds seed, seed + 1, ...)
+// and uploaded as text in turn, so generating them isn't part of the measurement. --concurrency
+// clients (one virtual thread each) send their requests back to back: a closed loop, so the
+// server is never offered more than that many requests at once. Every latency is kept, so the
+// percentiles are exact; the server's own view (/stats: queue depth, batch sizes, its latency
+// histograms) is printed at the end.
+public final class LoadGenerator {
+    private LoadGenerator() {
+    }
+
+    // latencies of every request in nanoseconds plus the error count and wall time
+    static final class Report {
+        final long[] latencies;
+        final int errors;
+        final long elapsedNanos;
+
+        Report(long[] latencies, int errors, long elapsedNanos) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // latency (ms) that the fraction of requests stays at or below
+        double percentileMillis(double fraction) {
+            if (latencies.length == 0) return 0;
+            int index = (int) Math.ceil(fraction * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1e6;
+        }
+
+        double requestsPerSecond() {
+            return latencies.length / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d requests (%d errors) in %.2f s: %.0f requests/s%n"
+                            + "latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    latencies.length, errors, elapsedNanos / 1e9, requestsPerSecond(), percentileMillis(0.50),
+                    percentileMillis(0.90), percentileMillis(0.99), percentileMillis(1.0));
+        }
+    }
+
+    // sends requests solve requests over concurrency connections, cycling through the bodies
+    public static Report run(URI solveUri, List<byte[]> bodies, int requests, int concurrency)
+            throws InterruptedException {
+        ExecutorService clients = VirtualThreads.newPerTaskExecutor("load");
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long startTime = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            running.add(clients.submit(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    HttpRequest request = HttpRequest.newBuilder(solveUri)
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(bodies.get(i % bodies.size())))
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() != 200) errors.incrementAndGet();
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - sent;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> client : running) {
+            try {
+                client.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("load client failed", e.getCause());
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+        clients.shutdown();
+        Arrays.sort(latencies);
+        return new Report(latencies, errors.get(), elapsed);
+    }
+
+    // text maze files of size x size, seeds seed .. seed + count - 1
+    static List<byte[]> mazeBodies(int size, int count, long seed) throws IOException {
+        List<byte[]> bodies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MazeFiles.writeText(MazeSolver.generateGrid(size, size, seed + i), Channels.newChannel(out));
+            bodies.add(out.toByteArray());
+        }
+        return bodies;
+    }
+
+    /* COMMAND LINE */
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = "http://localhost:8080";
+        int requests = 2000;
+        int concurrency = 64;
+        int size = 101;
+        int mazes = 32;
+        String algorithm = "BFS";
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[++i];
+                    break;
+                case "--requests":
+                    requests = Integer.parseInt(args[++i]);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(args[++i]);
+                    break;
+                case "--size":
+                    size = Integer.parseInt(args[++i]);
+                    break;
+                case "--mazes":
+                    mazes = Integer.parseInt(args[++i]);
+                    break;
+                case "--algorithm":
+                    algorithm = args[++i].toUpperCase(Locale.ROOT);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Usage: java MazeSolver loadtest [--url http://localhost:8080] [--requests N] "
+                            + "[--concurrency N] [--size N] [--mazes N] [--algorithm BFS] [--seed N]");
+                    System.exit(2);
+            }
+        }
+
+        List<byte[]> bodies = mazeBodies(size, Math.max(1, mazes), seed);
+        URI base = URI.create(url.endsWith("/") ? url : url + "/");
+        URI solve = base.resolve("solve?algorithm=" + algorithm);
+        System.out.printf(Locale.ROOT, "%d x %d mazes (%d different), %d requests, %d concurrent, %s%n",
+                size, size, bodies.size(), requests, concurrency, algorithm);
+        run(solve, bodies, Math.min(requests, concurrency * 4), concurrency); // warm-up, not reported
+        Report report = run(solve, bodies, requests, concurrency);
+        System.out.println(report);
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try {
+            HttpResponse<String> stats = http.send(HttpRequest.newBuilder(base.resolve("stats")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            System.out.println("Server stats: " + stats.body().trim());
+        } catch (IOException e) {
+            System.out.println("Server stats unavailable: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/* MEMORY-MAPPED MAZE GRID */
+// Reads the wall bits straight out of a binary maze file mapped into memory (see MazeFiles),
+// so a solver can run over a huge maze file without copying it onto the heap.
+// The operating system pages the file in as the search touches it.
+public class MappedMazeGrid implements MazeGrid {
+    private final int rows;
+    private final int cols;
+    private final int start;
+    private final int end;
+    private final LongBuffer walls; // same bit layout as BitMazeGrid: bit set = wall
+    private final ByteBuffer costs; // one byte per cell, null for an unweighted file
+
+    MappedMazeGrid(int rows, int cols, int start, int end, LongBuffer walls, ByteBuffer costs) {
+        this.rows = rows;
+        this.cols = cols;
+        this.start = start;
+        this.end = end;
+        this.walls = walls;
+        this.costs = costs;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public boolean isOpen(int cell) {
+        return (walls.get(cell >>> 6) & (1L << cell)) == 0;
+    }
+
+    @Override
+    public int cost(int cell) {
+        return costs == null ? 1 : costs.get(cell);
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return costs != null;
+    }
+
+    @Override
+    public long wallWord(int word) {
+        int cellsLeft = rows * cols - (word << 6);
+        return cellsLeft >= 64 ? walls.get(word) : walls.get(word) & ((1L << cellsLeft) - 1);
+    }
+
+    @Override
+    public int start() {
+        return start;
+    }
+
+    @Override
+    public int end() {
+        return end;
+    }
+}
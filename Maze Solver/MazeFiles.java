@@ -0,0 +1,334 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/* MAZE FILES */
+// Saves and loads mazes in two formats:
+//
+// TEXT: one line per row using the MazeSolver symbols (# . S E, digits 1-9 for weighted cells).
+//   Parsed byte by byte from a 64 KB buffer straight into wall bits, so no String or char[] is
+//   made per row.
+//
+// BINARY (.maze), all numbers little-endian:
+//   bytes 0-3    magic "MAZE"
+//   bytes 4-7    format version (1, or 2 for a weighted maze)
+//   bytes 8-15   rows, cols (int each)
+//   bytes 16-31  start cell, end cell (long each, -1 = none)
+//   bytes 32-    wall bits, 64 cells per long, bit set = wall (same layout as BitMazeGrid)
+//   then, version 2 only: one cost byte (1-9) per cell
+// A binary file can be memory-mapped (mapBinary), so solvers run directly over the file.
+public class MazeFiles {
+    public static final int MAGIC = 0x455A414D; // "MAZE" read as a little-endian int
+    public static final int VERSION = 1;
+    public static final int WEIGHTED_VERSION = 2;
+    public static final int HEADER_BYTES = 32;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private MazeFiles() {
+    }
+
+    // loads any maze file: binary files are memory-mapped, anything else is parsed as text
+    public static MazeGrid read(Path file) throws IOException {
+        return isBinary(file) ? mapBinary(file) : readText(file);
+    }
+
+    // parses a maze held in memory (e.g. an upload): binary if it starts with the magic number, text otherwise
+    public static BitMazeGrid read(byte[] bytes, String name) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length >= 4 && buffer.getInt(0) == MAGIC) {
+            return readBinary(buffer, name);
+        }
+        return readText(Channels.newChannel(new ByteArrayInputStream(bytes)), name);
+    }
+
+    // true if the file starts with the binary magic number
+    public static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until 4 bytes or end of file
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /* TEXT FORMAT */
+
+    public static BitMazeGrid readText(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readText(channel, file.toString());
+        }
+    }
+
+    // streaming text parser: works on any channel (file, socket, standard input)
+    public static BitMazeGrid readText(ReadableByteChannel in, String name) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        long[] walls = new long[1024];
+        byte[] costs = null; // created at the first digit above 1
+        int cols = -1;  // unknown until the first line ends
+        int rows = 0;
+        int cell = 0;   // next cell number = rows * cols + column
+        int column = 0; // cells on the current line so far
+        int start = -1;
+        int end = -1;
+
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    if (column > 0) {
+                        if (cols < 0) {
+                            cols = column;
+                        } else if (column != cols) {
+                            throw new IOException(name + ": row " + (rows + 1) + " has " + column
+                                    + " columns, expected " + cols);
+                        }
+                        rows++;
+                    }
+                    column = 0;
+                    continue;
+                }
+                if (b == '\r') continue;
+
+                if (cell >>> 6 >= walls.length) {
+                    walls = Arrays.copyOf(walls, walls.length * 2);
+                }
+                if (b == MazeSolver.WALL) {
+                    walls[cell >>> 6] |= 1L << cell;
+                } else if (b == MazeSolver.START) {
+                    start = cell;
+                } else if (b == MazeSolver.END) {
+                    end = cell;
+                } else if (b >= '2' && b <= '9') {
+                    if (costs == null || cell >= costs.length) {
+                        costs = growCosts(costs, walls.length << 6);
+                    }
+                    costs[cell] = (byte) (b - '0');
+                }
+                cell++;
+                column++;
+            }
+            buffer.clear();
+        }
+
+        // last line without a newline
+        if (column > 0) {
+            if (cols >= 0 && column != cols) {
+                throw new IOException(name + ": row " + (rows + 1) + " has " + column + " columns, expected " + cols);
+            }
+            if (cols < 0) cols = column;
+            rows++;
+        }
+        if (rows == 0) {
+            throw new IOException(name + ": empty maze");
+        }
+        if (costs != null) {
+            costs = growCosts(costs, cell); // same length as the maze, the rest cost 1
+        }
+        return new BitMazeGrid(rows, cols, Arrays.copyOf(walls, (cell + 63) >>> 6), costs, start, end);
+    }
+
+    // copy of costs with the given length, new cells cost 1
+    private static byte[] growCosts(byte[] costs, int length) {
+        int old = costs == null ? 0 : Math.min(costs.length, length);
+        byte[] grown = costs == null ? new byte[length] : Arrays.copyOf(costs, length);
+        Arrays.fill(grown, old, length, (byte) 1);
+        return grown;
+    }
+
+    // writes a char[][] maze as text (keeps solution/visited marks)
+    public static void writeText(char[][] maze, Path file) throws IOException {
+        try (FileChannel channel = openForWrite(file)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            for (char[] row : maze) {
+                for (char c : row) {
+                    if (!buffer.hasRemaining()) drain(buffer, channel);
+                    buffer.put((byte) c);
+                }
+                if (!buffer.hasRemaining()) drain(buffer, channel);
+                buffer.put((byte) '\n');
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    // writes any grid as text, one buffered channel write per 64 KB
+    public static void writeText(MazeGrid grid, Path file) throws IOException {
+        try (FileChannel channel = openForWrite(file)) {
+            writeText(grid, channel);
+        }
+    }
+
+    public static void writeText(MazeGrid grid, WritableByteChannel out) throws IOException {
+        writeText(grid, null, out);
+    }
+
+    // the same with a solution drawn in: cells whose bit is set in pathCells (one bit per cell, see
+    // PathSink.marking) are written as '*', except S and E. The grid itself isn't changed.
+    public static void writeText(MazeGrid grid, long[] pathCells, WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        int cols = grid.cols();
+        int cell = 0;
+        for (int row = 0; row < grid.rows(); row++) {
+            for (int col = 0; col < cols; col++, cell++) {
+                if (!buffer.hasRemaining()) drain(buffer, out);
+                boolean onPath = pathCells != null && (pathCells[cell >>> 6] & (1L << cell)) != 0
+                        && cell != grid.start() && cell != grid.end();
+                buffer.put((byte) (onPath ? MazeSolver.SOLUTION : symbol(grid, cell)));
+            }
+            if (!buffer.hasRemaining()) drain(buffer, out);
+            buffer.put((byte) '\n');
+        }
+        drain(buffer, out);
+    }
+
+    private static char symbol(MazeGrid grid, int cell) {
+        if (cell == grid.start()) return MazeSolver.START;
+        if (cell == grid.end()) return MazeSolver.END;
+        return grid.isOpen(cell) ? MazeSolver.costSymbol(grid.cost(cell)) : MazeSolver.WALL;
+    }
+
+    /* BINARY FORMAT */
+
+    // writes the header, wall bits and (weighted mazes only) costs through a memory-mapped file
+    public static void writeBinary(MazeGrid grid, Path file) throws IOException {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        int cells = rows * cols;
+        int words = (cells + 63) >>> 6;
+        boolean weighted = grid.isWeighted();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = HEADER_BYTES + 8L * words + (weighted ? cells : 0);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            mapped.putInt(MAGIC).putInt(weighted ? WEIGHTED_VERSION : VERSION).putInt(rows).putInt(cols)
+                    .putLong(grid.start()).putLong(grid.end());
+
+            LongBuffer out = mapped.asLongBuffer();
+            if (grid instanceof BitMazeGrid) {
+                out.put(((BitMazeGrid) grid).words(), 0, words);
+            } else {
+                // pack any other grid 64 cells at a time
+                for (int w = 0; w < words; w++) {
+                    out.put(grid.wallWord(w));
+                }
+            }
+
+            if (weighted) {
+                mapped.position(HEADER_BYTES + 8 * words);
+                if (grid instanceof BitMazeGrid) {
+                    mapped.put(((BitMazeGrid) grid).costBytes(), 0, cells);
+                } else {
+                    for (int cell = 0; cell < cells; cell++) {
+                        mapped.put((byte) grid.cost(cell));
+                    }
+                }
+            }
+            mapped.force();
+        }
+    }
+
+    // maps a binary maze file read-only: the walls stay in the file, not on the heap
+    public static MappedMazeGrid mapBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            int[] header = readHeader(mapped, file.toString());
+            return new MappedMazeGrid(header[0], header[1], header[2], header[3],
+                    wallBits(mapped, header, file.toString()), costBytes(mapped, header, file.toString()));
+        }
+    }
+
+    // loads a binary maze file fully onto the heap
+    public static BitMazeGrid readBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return readBinary(mapped, file.toString());
+        }
+    }
+
+    // copies a binary maze out of a little-endian buffer onto the heap; name is used in error messages
+    public static BitMazeGrid readBinary(ByteBuffer buffer, String name) throws IOException {
+        int[] header = readHeader(buffer, name);
+        LongBuffer bits = wallBits(buffer, header, name);
+        long[] walls = new long[bits.capacity()];
+        bits.get(walls);
+        ByteBuffer costBuffer = costBytes(buffer, header, name);
+        byte[] costs = null;
+        if (costBuffer != null) {
+            costs = new byte[costBuffer.capacity()];
+            costBuffer.get(costs);
+        }
+        return new BitMazeGrid(header[0], header[1], walls, costs, header[2], header[3]);
+    }
+
+    // view of the wall bits after the header, exactly as many longs as the maze needs
+    private static LongBuffer wallBits(ByteBuffer mapped, int[] header, String file) throws IOException {
+        int words = (int) (((long) header[0] * header[1] + 63) >>> 6);
+        if (mapped.limit() - HEADER_BYTES < 8L * words) {
+            throw new IOException(file + ": maze file is truncated");
+        }
+        return mapped.slice(HEADER_BYTES, 8 * words).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    // view of the cost bytes after the wall bits, null for an unweighted file
+    private static ByteBuffer costBytes(ByteBuffer mapped, int[] header, String file) throws IOException {
+        if (header[4] != WEIGHTED_VERSION) return null;
+        int cells = header[0] * header[1];
+        long offset = HEADER_BYTES + 8L * ((cells + 63) >>> 6);
+        if (mapped.limit() - offset < cells) {
+            throw new IOException(file + ": maze file is truncated");
+        }
+        return mapped.slice((int) offset, cells);
+    }
+
+    // returns {rows, cols, start, end, version} after checking the header
+    private static int[] readHeader(ByteBuffer buffer, String file) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + ": not a binary maze file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION && version != WEIGHTED_VERSION) {
+            throw new IOException(file + ": unsupported maze file version " + buffer.getInt(4));
+        }
+        int rows = buffer.getInt(8);
+        int cols = buffer.getInt(12);
+        long start = buffer.getLong(16);
+        long end = buffer.getLong(24);
+        long cells = (long) rows * cols;
+        if (rows <= 0 || cols <= 0 || cells > Integer.MAX_VALUE || start >= cells || end >= cells) {
+            throw new IOException(file + ": bad maze header (" + rows + " x " + cols + ")");
+        }
+        return new int[] {rows, cols, (int) start, (int) end, version};
+    }
+
+    /* HELPERS */
+
+    private static FileChannel openForWrite(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.SplittableRandom;
+
+/* ITERATIVE MAZE GENERATOR */
+// Recursive backtracker written with an explicit stack, so big mazes can't overflow the thread stack.
+// Each stack frame stores its cell and a shuffled order of the 4 directions packed into one int
+// (2 bits per direction + the index of the next direction to try), exactly like one call of the
+// old recursive generatePaths. The same seed always gives the same maze.
+public class MazeGenerator {
+    private static final int[][] DIRECTIONS = MazeSolver.DIRECTIONS;
+
+    private MazeGenerator() {
+    }
+
+    // generates a maze with S at (1, 1) and E at (rows - 2, cols - 2); minimum size is 5x5
+    public static BitMazeGrid generate(int rows, int cols, long seed) {
+        if (rows < 5) rows = 5;
+        if (cols < 5) cols = 5;
+
+        BitMazeGrid grid = new BitMazeGrid(rows, cols); // starts as all walls
+        int start = 1 * cols + 1;
+        int end = (rows - 2) * cols + (cols - 2);
+        grid.setStart(start);
+        grid.setEnd(end);
+
+        carvePaths(grid, start, new SplittableRandom(seed));
+        ensurePathToEnd(grid, end);
+        return grid;
+    }
+
+    /* WEIGHTED TERRAIN */
+    private static final int LOOP_PERCENT = 10; // share of inner walls knocked out to make loops
+    private static final int CELLS_PER_PATCH = 150;
+    private static final int MAX_PATCH_RADIUS = 6;
+
+    // the same maze as generate(), plus loops (so there is more than one way to go) and square
+    // patches of costlier terrain (costs 2-9); same seed -> same maze
+    public static BitMazeGrid generateWeighted(int rows, int cols, long seed) {
+        BitMazeGrid grid = generate(rows, cols, seed);
+        rows = grid.rows();
+        cols = grid.cols();
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+
+        // knock out walls that sit between two open cells in a straight line
+        for (int row = 1; row < rows - 1; row++) {
+            for (int col = 1; col < cols - 1; col++) {
+                int cell = row * cols + col;
+                if (!grid.isWall(cell) || random.nextInt(100) >= LOOP_PERCENT) continue;
+                boolean vertical = !grid.isWall(cell - cols) && !grid.isWall(cell + cols)
+                        && grid.isWall(cell - 1) && grid.isWall(cell + 1);
+                boolean horizontal = !grid.isWall(cell - 1) && !grid.isWall(cell + 1)
+                        && grid.isWall(cell - cols) && grid.isWall(cell + cols);
+                if (vertical || horizontal) {
+                    grid.setWall(cell, false);
+                }
+            }
+        }
+
+        // square patches of one cost each, later patches on top of earlier ones
+        int patches = Math.max(1, rows * cols / CELLS_PER_PATCH);
+        for (int p = 0; p < patches; p++) {
+            int centerRow = random.nextInt(rows);
+            int centerCol = random.nextInt(cols);
+            int radius = 1 + random.nextInt(MAX_PATCH_RADIUS);
+            int cost = 2 + random.nextInt(MazeGrid.MAX_COST - 1);
+            for (int row = Math.max(0, centerRow - radius); row <= Math.min(rows - 1, centerRow + radius); row++) {
+                for (int col = Math.max(0, centerCol - radius); col <= Math.min(cols - 1, centerCol + radius); col++) {
+                    grid.setCost(row * cols + col, cost); // walls get a cost too, it is never used
+                }
+            }
+        }
+        // start and end stay plain cells
+        grid.setCost(grid.start(), 1);
+        grid.setCost(grid.end(), 1);
+        return grid;
+    }
+
+    // carves passages two cells at a time starting from the given cell
+    private static void carvePaths(BitMazeGrid grid, int startCell, SplittableRandom random) {
+        int rows = grid.rows();
+        int cols = grid.cols();
+
+        // only cells with odd row and odd column are ever pushed
+        int capacity = Math.max(1, (rows / 2) * (cols / 2));
+        int[] cells = new int[capacity];
+        int[] orders = new int[capacity]; // bits 0-7: direction order, bits 8-10: next index
+        int[] dirs = {0, 1, 2, 3};
+
+        int top = 0;
+        cells[top] = startCell;
+        orders[top++] = shuffledOrder(dirs, random);
+
+        while (top > 0) {
+            int frame = top - 1;
+            int state = orders[frame];
+            int next = state >>> 8;
+            if (next == 4) {
+                top--; // all directions tried: backtrack
+                continue;
+            }
+            orders[frame] = state + (1 << 8);
+
+            int dir = (state >>> (next * 2)) & 3;
+            int cell = cells[frame];
+            int row = cell / cols;
+            int col = cell - row * cols;
+            int newRow = row + DIRECTIONS[dir][0] * 2;
+            int newCol = col + DIRECTIONS[dir][1] * 2;
+
+            if (newRow >= 0 && newRow < rows && newCol >= 0 && newCol < cols) {
+                int newCell = newRow * cols + newCol;
+                if (grid.isWall(newCell)) {
+                    // mark the wall in between and the new cell as path, then continue from there
+                    grid.setWall((row + DIRECTIONS[dir][0]) * cols + col + DIRECTIONS[dir][1], false);
+                    grid.setWall(newCell, false);
+                    cells[top] = newCell;
+                    orders[top++] = shuffledOrder(dirs, random);
+                }
+            }
+        }
+    }
+
+    // shuffles the direction array in place (Fisher-Yates) and packs the order into 8 bits
+    private static int shuffledOrder(int[] dirs, SplittableRandom random) {
+        for (int i = 3; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = dirs[i];
+            dirs[i] = dirs[j];
+            dirs[j] = tmp;
+        }
+        return dirs[0] | dirs[1] << 2 | dirs[2] << 4 | dirs[3] << 6;
+    }
+
+    /* MAKE SURE THERE'S A PATH TO THE END POINT */
+    // opens one wall next to the end if the carving never reached it
+    static void ensurePathToEnd(BitMazeGrid grid, int end) {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        int endRow = end / cols;
+        int endCol = end % cols;
+
+        int firstWall = -1;
+        for (int[] dir : DIRECTIONS) {
+            int newRow = endRow + dir[0];
+            int newCol = endCol + dir[1];
+            if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) continue;
+
+            int cell = newRow * cols + newCol;
+            if (!grid.isWall(cell)) {
+                return; // already connected
+            }
+            if (firstWall < 0) {
+                firstWall = cell;
+            }
+        }
+        if (firstWall >= 0) {
+            grid.setWall(firstWall, false);
+        }
+    }
+}
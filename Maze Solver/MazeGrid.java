@@ -0,0 +1,61 @@
+/* MAZE GRID */
+// Read-only view of a maze where every cell has a number: cell = row * cols + col.
+// Solvers only need to know which cells are open and where start and end are,
+// so the maze can be stored as char[][] (CharMazeGrid) or as packed bits (BitMazeGrid).
+public interface MazeGrid {
+    // most a single cell can cost to enter (weighted terrain uses the digits 1-9)
+    int MAX_COST = 9;
+
+    int rows();
+
+    int cols();
+
+    // true if the cell can be walked on (anything that is not a wall)
+    boolean isOpen(int cell);
+
+    // cell number of the start / end, or -1 if the maze has none
+    int start();
+
+    int end();
+
+    // cost of stepping onto an open cell: 1, or up to MAX_COST on weighted terrain
+    default int cost(int cell) {
+        return 1;
+    }
+
+    // true if some cells may cost more than 1 (only Dijkstra takes the costs into account)
+    default boolean isWeighted() {
+        return false;
+    }
+
+    default int cellCount() {
+        return rows() * cols();
+    }
+
+    // wall bits of cells word * 64 .. word * 64 + 63, bit set = wall (the BitMazeGrid / binary file
+    // layout); cells past the last one read as 0. Grids that already store bits override this.
+    default long wallWord(int word) {
+        long bits = 0;
+        int first = word << 6;
+        int last = Math.min(cellCount(), first + 64);
+        for (int cell = first; cell < last; cell++) {
+            if (!isOpen(cell)) bits |= 1L << cell;
+        }
+        return bits;
+    }
+
+    // copies the grid into a char[][] maze using the MazeSolver symbols
+    default char[][] toChars() {
+        int cols = cols();
+        char[][] maze = new char[rows()][cols];
+        for (int row = 0; row < maze.length; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cell = row * cols + col;
+                maze[row][col] = isOpen(cell) ? MazeSolver.costSymbol(cost(cell)) : MazeSolver.WALL;
+            }
+        }
+        if (start() >= 0) maze[start() / cols][start() % cols] = MazeSolver.START;
+        if (end() >= 0) maze[end() / cols][end() % cols] = MazeSolver.END;
+        return maze;
+    }
+}
@@ -0,0 +1,482 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/* SOLVE SERVICE (HTTP) */
+// A local HTTP server (the JDK's com.sun.net.httpserver) that solves uploaded mazes and generates
+// mazes from a seed. Every request runs on its own virtual thread (a cached pool on Java 17-20).
+//
+//   POST /solve[?algorithm=A_STAR][&moves=false]   body: a maze file, text or binary (.maze)
+//        -> {"algorithm":..,"rows":..,"cols":..,"pathLength":..,"moves":"R3D2..",<metrics>,"queueMs":..,"batch":..}
+//   GET  /generate?rows=R&cols=C[&seed=N][&format=text|binary]
+//        -> the maze, streamed row by row by EllerMazeGenerator (same seed -> same maze as
+//           "java MazeSolver generate"); the seed is also sent back in X-Maze-Seed
+//   GET  /stats -> request counts, queue depth, batch sizes and latency histograms (JSON)
+//
+// Micro-batching: small mazes (up to --small-cells cells) aren't solved on the request thread.
+// They wait in one bounded queue, and each of the --workers solver threads takes everything that
+// is waiting (up to --batch mazes) in one go and solves it back to back with its own solvers, so
+// the scratch arrays stay warm and a burst of small requests costs one wakeup per batch instead
+// of one per maze. Nothing waits for a batch to fill up: an idle worker takes a lone request at
+// once. When the queue is full the server answers 503 instead of queueing without bound. Bigger
+// mazes are solved on the request thread, at most --workers of them at a time.
+// Uploads are read into memory before they are parsed, so all request threads together may only
+// buffer --upload-buffer-mb (the Content-Length, or --max-upload-mb if it isn't sent, is reserved
+// before reading); an upload that doesn't fit in what is left gets a 503 straight away.
+public class MazeServer implements AutoCloseable {
+    public static final int DEFAULT_MAX_GENERATE_CELLS = 1 << 26; // about 64 MB of text
+    private static final long SOLVE_TIMEOUT_SECONDS = 60; // a solve that takes longer is stopped, 504
+
+    private final HttpServer server;
+    private final ExecutorService requests = VirtualThreads.newPerTaskExecutor("maze-http");
+    private final BlockingQueue<Job> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Semaphore bigSolves;
+    private final int batchSize;
+    private final int smallCells;
+    private final int maxUploadBytes;
+    private final int maxGenerateCells; // largest maze /generate streams (at most Integer.MAX_VALUE, the .maze limit)
+    private final Semaphore uploadBuffer; // KiB that uploads being read and parsed may still take
+
+    private final LatencyHistogram solveLatency = new LatencyHistogram();
+    private final LatencyHistogram generateLatency = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedJobs = new LongAdder();
+    private final LongAdder directSolves = new LongAdder();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxBatch = new LongAccumulator(Math::max, 0);
+
+    // port 0 picks a free port (see getPort)
+    public MazeServer(int port, int workerCount, int batchSize, int smallCells, int queueCapacity, int maxUploadBytes,
+                      long uploadBufferBytes, int maxGenerateCells) throws IOException {
+        if (workerCount < 1 || batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("workers, batch size and queue capacity must be at least 1");
+        }
+        this.batchSize = batchSize;
+        this.smallCells = smallCells;
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxGenerateCells = maxGenerateCells;
+        // at least one upload of the largest size must fit
+        this.uploadBuffer = new Semaphore((int) Math.min(Integer.MAX_VALUE,
+                Math.max(kibibytes(maxUploadBytes), uploadBufferBytes >>> 10)));
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.bigSolves = new Semaphore(workerCount);
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        server.setExecutor(requests);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/generate", this::handleGenerate);
+        server.createContext("/stats", this::handleStats);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "maze-worker-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    public void start() {
+        workers.forEach(Thread::start);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.forEach(Thread::interrupt);
+        requests.shutdownNow();
+    }
+
+    /* SOLVING */
+
+    // one uploaded maze waiting for a worker
+    private static final class Job {
+        final MazeGrid grid;
+        final Algorithm algorithm;
+        final boolean moves;
+        final long queuedAt = System.nanoTime();
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Job(MazeGrid grid, Algorithm algorithm, boolean moves) {
+            this.grid = grid;
+            this.algorithm = algorithm;
+            this.moves = moves;
+        }
+    }
+
+    // worker thread: takes whatever is queued (a batch) and solves it with this thread's solvers
+    private void work() {
+        Map<Algorithm, GridSolver> solvers = new EnumMap<>(Algorithm.class);
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return; // server closed
+            }
+            queue.drainTo(batch, batchSize - 1);
+            batches.increment();
+            batchedJobs.add(batch.size());
+            maxBatch.accumulate(batch.size());
+            try {
+                for (Job job : batch) {
+                    if (job.result.isDone()) continue; // the request timed out already
+                    long waited = System.nanoTime() - job.queuedAt;
+                    queueWait.record(waited);
+                    int batched = batch.size();
+                    try {
+                        GridSolver solver = solvers.computeIfAbsent(job.algorithm, Algorithm::newSolver);
+                        // stops at the solver's next cancellation check once the request has timed out
+                        job.result.complete(SolveCancellation.run(job.result::isDone,
+                                () -> solve(solver, job.grid, job.algorithm, job.moves, waited, batched)));
+                    } catch (Throwable e) {
+                        // an Error too (OutOfMemoryError, StackOverflowError): this request fails, the worker
+                        // goes on with a new solver, as the old one may have been left half way
+                        solvers.remove(job.algorithm);
+                        job.result.completeExceptionally(e);
+                    }
+                }
+            } finally {
+                // whatever happened above, no request may be left waiting for this batch
+                for (Job job : batch) {
+                    job.result.completeExceptionally(new IllegalStateException("solve worker failed"));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    // solves and formats the response; the path is streamed into the move encoder (or dropped)
+    private static String solve(GridSolver solver, MazeGrid grid, Algorithm algorithm, boolean moves,
+                                long waitedNanos, int batch) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        RunLengthPath.Writer writer = moves ? new RunLengthPath.Writer(grid.cols(), Channels.newChannel(encoded)) : null;
+        SolverMetrics metrics = solver.solveWithMetrics(algorithm, grid, writer != null ? writer : cell -> { });
+        if (writer != null) writer.finish();
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"algorithm\":\"").append(algorithm.name()).append('"')
+                .append(",\"rows\":").append(grid.rows())
+                .append(",\"cols\":").append(grid.cols())
+                .append(",\"pathLength\":").append(metrics.getPathLength());
+        if (writer != null && metrics.getPathLength() >= 0) {
+            json.append(",\"moves\":\"").append(encoded.toString(StandardCharsets.US_ASCII)).append('"');
+        }
+        json.append(",\"visited\":").append(metrics.getCellsVisited())
+                .append(",\"expanded\":").append(metrics.getCellsExpanded())
+                .append(",\"maxFrontier\":").append(metrics.getMaxFrontier())
+                .append(",\"allocatedBytes\":").append(metrics.getAllocatedBytes())
+                .append(",\"timeMs\":").append(millis(metrics.getTotalNanos()))
+                .append(",\"searchMs\":").append(millis(metrics.getSearchNanos()))
+                .append(",\"reconstructMs\":").append(millis(metrics.getReconstructNanos()))
+                .append(",\"queueMs\":").append(millis(waitedNanos))
+                .append(",\"batch\":").append(batch);
+        return json.append('}').toString();
+    }
+
+    /* HANDLERS */
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, error("POST a maze file to /solve"));
+                return;
+            }
+            Map<String, String> query = query(exchange);
+            Algorithm algorithm;
+            try {
+                algorithm = Algorithm.valueOf(query.getOrDefault("algorithm", "BFS").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, error("unknown algorithm " + query.get("algorithm")));
+                return;
+            }
+            boolean moves = !"false".equals(query.get("moves"));
+
+            long declared = contentLength(exchange); // -1 for a chunked upload
+            if (declared > maxUploadBytes) {
+                respond(exchange, 413, error("maze file larger than " + maxUploadBytes + " bytes"));
+                return;
+            }
+            int readLimit = declared >= 0 ? (int) declared : maxUploadBytes;
+            int reserved = kibibytes(readLimit);
+            if (!uploadBuffer.tryAcquire(reserved)) {
+                rejected.increment();
+                respond(exchange, 503, error("too many uploads in progress"));
+                return;
+            }
+            MazeGrid grid;
+            try {
+                byte[] body = exchange.getRequestBody().readNBytes(readLimit + 1);
+                if (body.length > maxUploadBytes) {
+                    respond(exchange, 413, error("maze file larger than " + maxUploadBytes + " bytes"));
+                    return;
+                }
+                try {
+                    grid = MazeFiles.read(body, "upload");
+                } catch (IOException | RuntimeException e) {
+                    respond(exchange, 400, error(e.getMessage() == null ? e.toString() : e.getMessage()));
+                    return;
+                }
+            } finally {
+                uploadBuffer.release(reserved); // the body is garbage now, the parsed grid is much smaller
+            }
+
+            String result;
+            if (grid.cellCount() <= smallCells) {
+                Job job = new Job(grid, algorithm, moves);
+                if (!queue.offer(job)) {
+                    rejected.increment();
+                    respond(exchange, 503, error("solve queue is full"));
+                    return;
+                }
+                maxQueueDepth.accumulate(queue.size());
+                try {
+                    result = job.result.get(SOLVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    job.result.cancel(false); // a worker skips it, or stops solving it
+                    errors.increment();
+                    respond(exchange, 504, error("solve took longer than " + SOLVE_TIMEOUT_SECONDS + " s"));
+                    return;
+                }
+            } else {
+                bigSolves.acquire();
+                try {
+                    directSolves.increment();
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SOLVE_TIMEOUT_SECONDS);
+                    result = SolveCancellation.run(() -> System.nanoTime() - deadline > 0,
+                            () -> solve(algorithm.newSolver(), grid, algorithm, moves, 0, 1));
+                } catch (CancellationException e) {
+                    errors.increment();
+                    respond(exchange, 504, error("solve took longer than " + SOLVE_TIMEOUT_SECONDS + " s"));
+                    return;
+                } finally {
+                    bigSolves.release();
+                }
+            }
+            respond(exchange, 200, result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // server is closing
+        } catch (ExecutionException | RuntimeException e) {
+            errors.increment();
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            respond(exchange, 500, error(String.valueOf(cause)));
+        } finally {
+            exchange.close();
+            solveLatency.record(System.nanoTime() - startTime);
+        }
+    }
+
+    private void handleGenerate(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                respond(exchange, 405, error("use GET /generate?rows=R&cols=C[&seed=N][&format=text|binary]"));
+                return;
+            }
+            Map<String, String> query = query(exchange);
+            int rows;
+            int cols;
+            long seed;
+            try {
+                rows = Integer.parseInt(query.getOrDefault("rows", "0"));
+                cols = Integer.parseInt(query.getOrDefault("cols", "0"));
+                seed = query.containsKey("seed") ? Long.parseLong(query.get("seed")) : new SplittableRandom().nextLong();
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, error("rows, cols and seed must be numbers"));
+                return;
+            }
+            if (rows <= 0 || cols <= 0 || (long) Math.max(5, rows) * Math.max(5, cols) > maxGenerateCells) {
+                respond(exchange, 400, error("rows and cols must be positive, at most " + maxGenerateCells + " cells in all"));
+                return;
+            }
+            boolean binary = "binary".equals(query.get("format"));
+
+            exchange.getResponseHeaders().set("Content-Type", binary ? "application/octet-stream" : "text/plain");
+            exchange.getResponseHeaders().set("X-Maze-Seed", Long.toString(seed));
+            exchange.sendResponseHeaders(200, 0); // chunked: the maze is written while it is generated
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (binary) {
+                    EllerMazeGenerator.writeBinary(rows, cols, seed, Channels.newChannel(out));
+                } else {
+                    EllerMazeGenerator.writeText(rows, cols, seed, Channels.newChannel(out));
+                }
+            }
+        } finally {
+            exchange.close();
+            generateLatency.record(System.nanoTime() - startTime);
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            respond(exchange, 200, statsJson());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public String statsJson() {
+        long batchCount = batches.sum();
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"queueDepth\":").append(queue.size())
+                .append(",\"maxQueueDepth\":").append(maxQueueDepth.get())
+                .append(",\"workers\":").append(workers.size())
+                .append(",\"batches\":").append(batchCount)
+                .append(",\"meanBatch\":").append(String.format(Locale.ROOT, "%.2f",
+                        batchCount == 0 ? 0.0 : (double) batchedJobs.sum() / batchCount))
+                .append(",\"maxBatch\":").append(maxBatch.get())
+                .append(",\"directSolves\":").append(directSolves.sum())
+                .append(",\"rejected\":").append(rejected.sum())
+                .append(",\"uploadBufferFreeKb\":").append(uploadBuffer.availablePermits())
+                .append(",\"errors\":").append(errors.sum())
+                .append(",\"solve\":").append(solveLatency.toJson())
+                .append(",\"queueWait\":").append(queueWait.toJson())
+                .append(",\"generate\":").append(generateLatency.toJson());
+        return json.append('}').toString();
+    }
+
+    /* HELPERS */
+
+    // the Content-Length of the request, -1 if it wasn't sent or isn't a number
+    private static long contentLength(HttpExchange exchange) {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        try {
+            return length == null ? -1 : Long.parseLong(length.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // bytes rounded up to whole KiB (at least 1), the unit of the upload buffer semaphore
+    private static int kibibytes(int bytes) {
+        return Math.max(1, (int) (((long) bytes + 1023) >>> 10));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + BatchSolver.jsonString(message) + "}";
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> values = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return values;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            values.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    /* COMMAND LINE */
+
+    // java MazeSolver serve [--port 8080] [--workers N] [--batch 32] [--small-cells N] [--queue N] [--max-upload-mb N]
+    //                       [--upload-buffer-mb 256] [--max-generate-cells N] [--parallelism N]
+    // (--parallelism: threads of each PARALLEL_BFS solve)
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = 8080;
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        int batchSize = 32;
+        int smallCells = 1 << 20;
+        int queueCapacity = 4096;
+        int maxUploadMb = 64;
+        int uploadBufferMb = 256;
+        int maxGenerateCells = DEFAULT_MAX_GENERATE_CELLS;
+        boolean valid = true;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--workers":
+                        workerCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "--batch":
+                        batchSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--small-cells":
+                        smallCells = Integer.parseInt(args[++i]);
+                        break;
+                    case "--queue":
+                        queueCapacity = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-upload-mb":
+                        maxUploadMb = Integer.parseInt(args[++i]);
+                        break;
+                    case "--upload-buffer-mb":
+                        uploadBufferMb = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-generate-cells":
+                        maxGenerateCells = Integer.parseInt(args[++i]);
+                        break;
+                    case "--parallelism":
+                        ParallelBfsSolver.setDefaultParallelism(Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        valid = false;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            valid = false; // an option without its value or a bad number
+        }
+        if (!valid || workerCount < 1 || batchSize < 1 || queueCapacity < 1 || maxUploadMb < 1
+                || uploadBufferMb < 1 || maxGenerateCells < 25) {
+            System.err.println("Usage: java MazeSolver serve [--port 8080] [--workers N] [--batch 32] "
+                    + "[--small-cells N] [--queue N] [--max-upload-mb N] [--upload-buffer-mb N] "
+                    + "[--max-generate-cells N] [--parallelism N]");
+            System.exit(2);
+        }
+        MazeServer server = new MazeServer(port, workerCount, batchSize, smallCells, queueCapacity,
+                (int) Math.min(Integer.MAX_VALUE - 1, (long) maxUploadMb << 20), (long) uploadBufferMb << 20,
+                maxGenerateCells);
+        server.start();
+        System.out.println("Maze server on http://localhost:" + server.getPort() + "/ (" + workerCount
+                + " solver workers, batches of up to " + batchSize + ", "
+                + (VirtualThreads.available() ? "virtual" : "platform") + " request threads)");
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        Thread.currentThread().join(); // serve until the process is stopped
+    }
+}
@@ -1,6 +1,9 @@
 import java.util.*;
 import java.io.*;
 import java.util.ArrayList;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongConsumer;
 
 /* 1. SYMBOL DEFINITION */ 
 public class MazeSolver { // MazeSolver is the main class
@@ -10,6 +13,17 @@ public class MazeSolver { // MazeSolver is the main class
     public static final char END = 'E';
     public static final char VISITED = 'V';
     public static final char SOLUTION = '*';
+    // digits '1' - '9' are weighted path cells: stepping onto one costs that much ('.' costs 1)
+
+    // traversal cost of a symbol: 2-9 for the digits, 1 for every other open cell
+    public static int costOf(char symbol) {
+        return symbol >= '2' && symbol <= '9' ? symbol - '0' : 1;
+    }
+
+    // symbol of an open cell with the given cost
+    public static char costSymbol(int cost) {
+        return cost <= 1 ? PATH : (char) ('0' + cost);
+    }
 
     // position class: coordinates
     public static class Position {
@@ -52,10 +66,36 @@ public class MazeSolver { // MazeSolver is the main class
     }
 
     /*  2. DIRECTIONS: UP, RIGHT, DOWN, LEFT */
-    private static final int[][] DIRECTIONS = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+    static final int[][] DIRECTIONS = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
 
     // main method: for user interaction & execution
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // "java MazeSolver batch ..." runs the headless batch mode instead (see BatchSolver)
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "java MazeSolver tiled ..." solves a maze stored in tiles on disk (see TiledSolver)
+        if (args.length > 0 && args[0].equals("tiled")) {
+            TiledSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "java MazeSolver generate ..." streams a new maze to a file row by row (see EllerMazeGenerator)
+        if (args.length > 0 && args[0].equals("generate")) {
+            EllerMazeGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "java MazeSolver serve ..." runs the local HTTP solve service (see MazeServer)
+        if (args.length > 0 && args[0].equals("serve")) {
+            MazeServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "java MazeSolver loadtest ..." drives a running service and reports latencies (see LoadGenerator)
+        if (args.length > 0 && args[0].equals("loadtest")) {
+            LoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
         Scanner scanner = new Scanner(System.in); // uses scanner to get user input
         
         System.out.println("=== Maze Solver Program ===");
@@ -64,255 +104,164 @@ public class MazeSolver { // MazeSolver is the main class
         int cols = scanner.nextInt(); // reads number of columns from the user
         
         char[][] maze = generateMaze(rows, cols); // generates maze of requested size
+        MazeGrid grid = new CharMazeGrid(maze);
         
         // prints generated maze
         System.out.println("Generated Maze:");
-        printMaze(maze);
+        printMaze(grid, null);
         
-        // prompts the user to select BFS or DFS algorithm
+        // prompts the user to select an algorithm
         System.out.println("\nSelect algorithm:");
-        System.out.println("1. Breadth-First Search (Queue)");
-        System.out.println("2. Depth-First Search (Stack)");
+        Algorithm[] algorithms = Algorithm.values();
+        for (int i = 0; i < algorithms.length; i++) {
+            System.out.println((i + 1) + ". " + algorithms[i].getDescription());
+        }
         
         System.out.print("Your choice: ");
         int choice = scanner.nextInt();
-        
-        // records performance start time and memory
-        long startTime = System.nanoTime();
-        long startMemory = getMemoryUsage();
-        
-        // performs either BFS or DFS based on user choice
-        List<Position> solution = null;
-        
-        if (choice == 1) {
-            System.out.println("\nSolving with BFS (Queue)...");
-            solution = solveMazeWithQueue(maze);
-        } else {
-            System.out.println("\nSolving with DFS (Stack)...");
-            solution = solveMazeWithStack(maze);
-        }
-        
-        // records performance end time and memory
-        long endTime = System.nanoTime();
-        long endMemory = getMemoryUsage();
-        
-        // if solution exists: mark and print path, otherwise notify no path found
-        if (solution != null) {
+        // anything that is not on the menu falls back to DFS
+        Algorithm algorithm = (choice >= 1 && choice <= algorithms.length) ? algorithms[choice - 1] : Algorithm.DFS;
+        GridSolver solver = algorithm.newSolver();
+        
+        // performs the chosen search (time, allocation and search effort are measured by SolverMetrics);
+        // the path is streamed into a bitset of its cells and a run-length move string, no list is built
+        System.out.println("\nSolving with " + algorithm.getLabel() + "...");
+        long[] pathCells = new long[(grid.cellCount() + 63) >>> 6];
+        ByteArrayOutputStream moves = new ByteArrayOutputStream();
+        RunLengthPath.Writer movesWriter = new RunLengthPath.Writer(grid.cols(), Channels.newChannel(moves));
+        SolverMetrics metrics = solver.solveWithMetrics(algorithm, grid, PathSink.marking(pathCells).andThen(movesWriter));
+        
+        // if solution exists: print the maze with the path marked, otherwise notify no path found
+        if (metrics.getPathLength() >= 0) {
+            movesWriter.finish();
             System.out.println("\nMaze solved successfully!");
-            markSolution(maze, solution);
             System.out.println("\nSolution:");
-            printMaze(maze);
-            System.out.println("\nPath length: " + (solution.size() - 1) + " steps");
+            printMaze(grid, pathCells);
+            System.out.println("\nPath length: " + metrics.getPathLength() + " steps");
+            System.out.println("Moves: " + moves.toString(StandardCharsets.US_ASCII));
         } else {
             System.out.println("\nNo solution found for the maze!");
         }
         
-        // display runtime and memory used
+        // display runtime, memory allocated and search effort
         System.out.println("\nPerformance Metrics:");
-        System.out.println("Execution time: " + (endTime - startTime) / 1_000_000.0 + " ms");
-        System.out.println("Memory used: " + (endMemory - startMemory) / 1024 + " KB");
+        System.out.println("Search time: " + metrics.getSearchNanos() / 1_000_000.0 + " ms");
+        System.out.println("Path reconstruction time: " + metrics.getReconstructNanos() / 1_000_000.0 + " ms");
+        System.out.println("Memory allocated: " + formatBytes(metrics.getAllocatedBytes()));
+        System.out.println("Cells expanded: " + metrics.getCellsExpanded());
+        System.out.println("Max frontier size: " + metrics.getMaxFrontier());
+        System.out.println("Cells visited: " + visitedSummary(algorithm, solver, grid));
         
         scanner.close();
     }
 
     /* 3. GENERATE A RANDOM MAZE WITH GIVEN DIMENSIONS */ 
 
-    // ensures minimum maze size is 5x5
+    // ensures minimum maze size is 5x5 (uses a random seed)
     public static char[][] generateMaze(int rows, int cols) {
-        if (rows < 5) rows = 5;
-        if (cols < 5) cols = 5;
-        
-        char[][] maze = new char[rows][cols];
-        Random random = new Random();
-        
-        // Fill with walls
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                maze[i][j] = WALL;
-            }
-        }
-        
-        // Create a path using a simple algorithm
-        int startRow = 1;
-        int startCol = 1;
-        int endRow = rows - 2;
-        int endCol = cols - 2;
-        
-        // Mark start and end
-        maze[startRow][startCol] = START;
-        maze[endRow][endCol] = END;
-        
-        // Generate paths
-        generatePaths(maze, startRow, startCol);
-        
-        // Ensure there is a path to the end
-        ensurePathToEnd(maze, endRow, endCol);
-        
-        return maze;
+        // a random maze doesn't have to match the sequential generator's seed, so big ones are carved on every core
+        return ParallelMazeGenerator.generate(rows, cols, new SplittableRandom().nextLong()).toChars();
     }
-    
-    // Recursive method to generate paths in the maze
-    private static void generatePaths(char[][] maze, int row, int col) {
-        // Create a list of directions in random order and tries them
-        List<Integer> directions = new ArrayList<>(Arrays.asList(0, 1, 2, 3));
-        Collections.shuffle(directions);
-        
-        for (int dir : directions) {
-            int newRow = row + DIRECTIONS[dir][0] * 2;
-            int newCol = col + DIRECTIONS[dir][1] * 2;
-            
-            if (isValidCell(maze, newRow, newCol) && maze[newRow][newCol] == WALL) {
-                // Mark the wall in between as a path
-                maze[row + DIRECTIONS[dir][0]][col + DIRECTIONS[dir][1]] = PATH;
-                maze[newRow][newCol] = PATH;
-                generatePaths(maze, newRow, newCol);
-            }
-        }
+
+    // same seed -> same maze, so runs can be repeated
+    public static char[][] generateMaze(int rows, int cols, long seed) {
+        return generateGrid(rows, cols, seed).toChars();
     }
-    
-    /* 4. MAKE SURE THERE'S A PATH TO THE END POINT */
-    private static void ensurePathToEnd(char[][] maze, int endRow, int endCol) {
-        if (maze[endRow][endCol] == END) {
-            // Create paths next to the end point if needed
-            for (int[] dir : DIRECTIONS) {
-                int newRow = endRow + dir[0];
-                int newCol = endCol + dir[1];
-                
-                if (isValidCell(maze, newRow, newCol) && maze[newRow][newCol] == WALL) {
-                    maze[newRow][newCol] = PATH;
-                    break;
-                }
-            }
-        }
+
+    // generates straight into a packed grid, for mazes too big for char[][]
+    public static BitMazeGrid generateGrid(int rows, int cols, long seed) {
+        // S at (1, 1), E at (rows - 2, cols - 2), paths carved by an iterative backtracker
+        return MazeGenerator.generate(rows, cols, seed);
+    }
+
+    // carves regions of the maze on parallelism threads and stitches them together;
+    // same seed and parallelism -> same maze (see ParallelMazeGenerator)
+    public static BitMazeGrid generateGridParallel(int rows, int cols, long seed, int parallelism) {
+        return ParallelMazeGenerator.generate(rows, cols, seed, parallelism);
+    }
+
+    // same maze with a few extra openings (loops) and weighted terrain, for Dijkstra
+    public static char[][] generateWeightedMaze(int rows, int cols) {
+        return MazeGenerator.generateWeighted(rows, cols, new SplittableRandom().nextLong()).toChars();
     }
-    
-    // Check if a position is valid (inside bounds)
-    private static boolean isValidCell(char[][] maze, int row, int col) {
-        return row >= 0 && row < maze.length && col >= 0 && col < maze[0].length;
+
+    public static BitMazeGrid generateWeightedGrid(int rows, int cols, long seed) {
+        return MazeGenerator.generateWeighted(rows, cols, seed);
     }
 
     /* BFS - using Queue */ 
 
+    // one primitive search engine per thread, so its scratch arrays are reused between solves
+    private static final ThreadLocal<PrimitiveSolver> SOLVER = ThreadLocal.withInitial(PrimitiveSolver::new);
+
+    /* 5. BFS algorithm (solveMazeWithQueue) */ 
     // declares method to solve using BFS and returns a list representing the path from start to end
+    // (returns null if the maze has no start/end or no path exists)
+    // every cell that is not a WALL can be walked on, so an already solved maze can be solved again
     public static List<Position> solveMazeWithQueue(char[][] maze) { 
-        // gets number of rows and columns in maze
-        int rows = maze.length;
-        int cols = maze[0].length;
-        
-        // locates start and end of maze using helper function
-        Position start = findPosition(maze, START);
-        Position end = findPosition(maze, END);
-        
-        // if either start/end is not found: return null (invalid maze)
-        if (start == null || end == null) {
-            return null;
-        }
-        
-        // make a deep copy of the maze to avoid modifying the original maze
-        char[][] mazeCopy = copyMaze(maze);
+        return SOLVER.get().solveWithQueue(maze);
+    }
 
-        /* 5. BFS algorithm (solveMazeWithQueue) */ 
-        Queue<Position> queue = new LinkedList<>(); // initializes a queue to process positions layer by layer
-        boolean[][] visited = new boolean[rows][cols]; // initializes a 2D array to track which cells have been visited
-        
-        // adds start position to queue and marks it as visited
-        queue.add(start);
-        visited[start.row][start.col] = true;
-        
-        // BFS MAIN LOOP
-        while (!queue.isEmpty()) { // while there are positions to explore in the queue
-            Position current = queue.poll(); // gets and removes the next position to explore
-            
-            // if the current position is the end, call reconstructPath to trace back the path from end to start
-            if (current.row == end.row && current.col == end.col) {
-                return reconstructPath(current);
-            }
-            
-            // try all 4 directions & compute next cell's coordinates
-            for (int[] dir : DIRECTIONS) {
-                int newRow = current.row + dir[0];
-                int newCol = current.col + dir[1];
-                
-                // check if next cell is within bounds, not a wall & not visited yet
-                if (isValidMove(mazeCopy, newRow, newCol, visited)) {
-                    // marks cell as visited
-                    visited[newRow][newCol] = true; 
-                    if (mazeCopy[newRow][newCol] != START && mazeCopy[newRow][newCol] != END) {
-                        mazeCopy[newRow][newCol] = VISITED; // mark cell visited for visual feedback
-                    }
-                    // add new position to queue
-                    queue.add(new Position(newRow, newCol, current));
-                }
-            }
-        }
-        
-        return null; // No path found
+    // same BFS on a packed grid (see BitMazeGrid.fromChars)
+    public static List<Position> solveMazeWithQueue(MazeGrid grid) {
+        return SOLVER.get().solveWithQueue(grid);
     }
 
     /* DFS - using Stack */ 
+
+    /* 6.  DFS algorithm (solveMazeWithStack) */ 
     // declares method to solve using DFS and returns a list representing the path from start to end
     public static List<Position> solveMazeWithStack(char[][] maze) {
-        // determines number of rows and columns in maze
-        int rows = maze.length;
-        int cols = maze[0].length;
-        
-        // finds coordinates of start and end points
-        Position start = findPosition(maze, START);
-        Position end = findPosition(maze, END);
-        
-        // if start/end missing, return null (invalid maze)
-        if (start == null || end == null) {
-            return null;
-        }
-        
-        // make a deep copy of the maze to avoid modifying the original maze.
-        char[][] mazeCopy = copyMaze(maze);
+        return SOLVER.get().solveWithStack(maze);
+    }
 
-        /* 6.  DFS algorithm (solveMazeWithStack) */ 
-        Stack<Position> stack = new Stack<>(); // creates stack to hold maze positions for DFS
-        boolean[][] visited = new boolean[rows][cols]; // initializes a visited 2D array to keep track of explored cells
-        
-        // starts DFS by pushing the start position and marking it as visited
-        stack.push(start);
-        visited[start.row][start.col] = true;
-        
-        // DFS LOOP
-        while (!stack.isEmpty()) { // loop until no more nodes to explore
-            Position current = stack.pop(); // get current position from top of stack
-            
-            if (current.row == end.row && current.col == end.col) {
-                return reconstructPath(current); // found the end, reconstruct and return the path
-            }
-            
-            // explore adjacent positions
-            for (int[] dir : DIRECTIONS) {
-                // compute coordinates of adjacent cells
-                int newRow = current.row + dir[0];
-                int newCol = current.col + dir[1];
-                
-                if (isValidMove(mazeCopy, newRow, newCol, visited)) { // check if valid coordinate
-                    // marks new cell as visited
-                    visited[newRow][newCol] = true; 
-                    if (mazeCopy[newRow][newCol] != START && mazeCopy[newRow][newCol] != END) {
-                        mazeCopy[newRow][newCol] = VISITED; // mark cell visited for visual feedback
-                    }
-                    stack.push(new Position(newRow, newCol, current)); // push this position with a link to its parent
-                }
-            }
-        }
-        
-        return null; // No path found
+    // same DFS on a packed grid
+    public static List<Position> solveMazeWithStack(MazeGrid grid) {
+        return SOLVER.get().solveWithStack(grid);
+    }
+
+    /* A* - using a binary heap */
+
+    private static final ThreadLocal<AStarSolver> A_STAR = ThreadLocal.withInitial(AStarSolver::new);
+
+    // solves with A* (Manhattan heuristic): shortest path like BFS, but usually expands far fewer cells
+    public static List<Position> solveMazeWithAStar(char[][] maze) {
+        return A_STAR.get().solve(new CharMazeGrid(maze));
+    }
+
+    public static List<Position> solveMazeWithAStar(MazeGrid grid) {
+        return A_STAR.get().solve(grid);
+    }
+
+    /* CACHED SOLVES */
+
+    // solved paths shared by the GUI and batch mode, keyed by maze content (see SolveCache)
+    private static final SolveCache CACHE = new SolveCache(SolveCache.DEFAULT_MAX_BYTES);
+
+    // returns the cached path if this exact maze was already solved with the algorithm
+    public static List<Position> solveCached(MazeGrid grid, Algorithm algorithm) {
+        return CACHE.solve(grid, algorithm);
+    }
+
+    public static SolveCache solveCache() {
+        return CACHE;
     }
 
-    // Check if a move is valid: it must be path or end and not visited
-    private static boolean isValidMove(char[][] maze, int row, int col, boolean[][] visited) {
-        return isValidCell(maze, row, col) && 
-               (maze[row][col] == PATH || maze[row][col] == END) && 
-               !visited[row][col];
+    // visited cell count of the last solve; bidirectional search is also compared with a plain BFS from S
+    static String visitedSummary(Algorithm algorithm, GridSolver solver, MazeGrid grid) {
+        int visited = solver.getVisitedCount();
+        if (algorithm != Algorithm.BIDIRECTIONAL_BFS) {
+            return String.valueOf(visited);
+        }
+        PrimitiveSolver bfs = SOLVER.get();
+        bfs.solveWithQueue(grid);
+        int bfsVisited = bfs.getVisitedCount();
+        double saved = bfsVisited == 0 ? 0 : 100.0 * (bfsVisited - visited) / bfsVisited;
+        return String.format("%d (BFS from S alone: %d, %.0f%% fewer)", visited, bfsVisited, saved);
     }
 
     // Find a specific character in the maze: start or end
-    private static Position findPosition(char[][] maze, char target) { 
+    static Position findPosition(char[][] maze, char target) { 
         for (int i = 0; i < maze.length; i++) {
             for (int j = 0; j < maze[i].length; j++) {
                 if (maze[i][j] == target) {
@@ -323,19 +272,66 @@ public class MazeSolver { // MazeSolver is the main class
         return null;
     }
 
-    // Reconstruct the path from end to start using .parent
-    private static List<Position> reconstructPath(Position end) {
-        List<Position> path = new LinkedList<>();
-        Position current = end;
-        
-        while (current != null) {
-            path.add(0, current);
-            current = current.parent;
+    // Reconstruct the path from end to start using the parent array (parent[cell] = previous cell)
+    static List<Position> reconstructPath(int[] parent, int start, int end, int cols) {
+        // count the steps first so the list is allocated once at the right size
+        int length = 1;
+        for (int cell = end; cell != start; cell = parent[cell]) {
+            length++;
         }
-        
+
+        Position[] steps = new Position[length];
+        int cell = end;
+        for (int i = length - 1; i >= 0; i--) {
+            steps[i] = new Position(cell / cols, cell % cols);
+            cell = parent[cell];
+        }
+        for (int i = 1; i < length; i++) {
+            steps[i].parent = steps[i - 1];
+        }
+
+        return new ArrayList<>(Arrays.asList(steps));
+    }
+
+    // The same, timed: the solvers pass the nanoseconds it took on as their getReconstructNanos
+    static List<Position> reconstructPath(int[] parent, int start, int end, int cols, LongConsumer elapsed) {
+        long startTime = System.nanoTime();
+        List<Position> path = reconstructPath(parent, start, end, cols);
+        elapsed.accept(System.nanoTime() - startTime);
         return path;
     }
 
+    // Stream the path from start to end into the sink without building a list: the parent links
+    // are turned around in place first (the array is the solver's scratch), so nothing is allocated.
+    // Afterwards parent[] points forwards along the path. Returns the number of steps.
+    static int streamPath(int[] parent, int start, int end, PathSink sink) {
+        int next = end;
+        int cell = end;
+        while (true) {
+            int previous = parent[cell];
+            parent[cell] = next;
+            if (cell == start) break;
+            next = cell;
+            cell = previous;
+        }
+
+        int steps = 0;
+        for (cell = start; cell != end; cell = parent[cell]) {
+            sink.cell(cell);
+            steps++;
+        }
+        sink.cell(end);
+        return steps;
+    }
+
+    // The same, timed like reconstructPath above
+    static int streamPath(int[] parent, int start, int end, PathSink sink, LongConsumer elapsed) {
+        long startTime = System.nanoTime();
+        int steps = streamPath(parent, start, end, sink);
+        elapsed.accept(System.nanoTime() - startTime);
+        return steps;
+    }
+
     // Mark the solution path on the maze with *
     public static void markSolution(char[][] maze, List<Position> path) {
         for (Position pos : path) {
@@ -345,25 +341,37 @@ public class MazeSolver { // MazeSolver is the main class
         }
     }
 
-    // Create a deep copy of the maze for safe editing
-    private static char[][] copyMaze(char[][] original) {
-        char[][] copy = new char[original.length][original[0].length];
-        for (int i = 0; i < original.length; i++) {
-            copy[i] = Arrays.copyOf(original[i], original[i].length);
-        }
-        return copy;
+    // Mark a junction graph route on the maze with *; its cells are only walked here
+    public static void markSolution(char[][] maze, JunctionGraph.Route route) {
+        int cols = maze[0].length;
+        route.forEachCell(cell -> {
+            char[] row = maze[cell / cols];
+            if (row[cell % cols] != START && row[cell % cols] != END) {
+                row[cell % cols] = SOLUTION;
+            }
+        });
     }
 
-    // Print the maze
-    private static void printMaze(char[][] maze) {
-        for (char[] row : maze) {
-            System.out.println(new String(row));
+    // Total cost of a path on a weighted maze: every cell after the start adds its cost
+    // (the same as the step count on a maze without weights)
+    public static long pathCost(MazeGrid grid, List<Position> path) {
+        long cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += grid.cost(path.get(i).row * grid.cols() + path.get(i).col);
         }
+        return cost;
+    }
+
+    // Print the maze (and the path cells in the bitset, if any) through one buffered channel write
+    // per 64 KB instead of a String per row
+    private static void printMaze(MazeGrid grid, long[] pathCells) throws IOException {
+        System.out.flush();
+        MazeFiles.writeText(grid, pathCells, Channels.newChannel(System.out));
+        System.out.flush();
     }
 
-    // Get current memory usage
-    private static long getMemoryUsage() {
-        Runtime runtime = Runtime.getRuntime();
-        return runtime.totalMemory() - runtime.freeMemory();
+    // Format an allocation count from SolverMetrics (-1 = not supported by this JVM)
+    static String formatBytes(long bytes) {
+        return bytes < 0 ? "n/a" : bytes / 1024 + " KB";
     }
 }
\ No newline at end of file
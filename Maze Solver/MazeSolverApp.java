@@ -3,30 +3,54 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.ArrayList;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 // class declaration: it is a window that can contain other GUI components
 public class MazeSolverApp extends JFrame {
     private static final int DEFAULT_SIZE = 15; // default maze size 15
+    private static final int MAX_SIZE = 5000; // the cached image + zoom/pan keep big mazes browsable
     private int mazeSize = DEFAULT_SIZE; // maze size can be changed by user input
-    private char[][] maze; // stores the maze as a 2D array
+    // stores the maze as a 2D array; never changed once made, so solvers and the renderer can
+    // share it without copying (only read and replaced on the Event Dispatch Thread)
+    private char[][] maze;
+    private char[][] solvedMaze; // copy of maze with the last solution marked (saved as text)
+    // solves and generation run as tasks on virtual threads (see VirtualThreads)
+    private final ExecutorService tasks = VirtualThreads.newPerTaskExecutor("maze-task");
+    private Future<?> currentSolve; // running solve, if any
+    private int solveId;            // bumped for every new solve/maze so stale results are dropped
+    private int mazeVersion;        // bumped for every new maze (not for edits), so edits know when to start over
+    private int[] drawnPath;        // path cells drawn on the shown image, start first (EDT only)
+    
+    // wall edits are repaired one at a time, in click order, on this thread
+    private final ExecutorService edits = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "maze-edit");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private IncrementalSolver editor; // keeps its search between edits (edit thread only)
+    private int editorVersion = -1;   // mazeVersion the editor was built for (edit thread only)
     // GUI components for maze
-    private JPanel mazePanel;
-    private JComboBox<String> algorithmComboBox;
+    private MazeView mazePanel;
+    private JComboBox<Algorithm> algorithmComboBox;
     private JButton solveButton;
+    private JButton cancelButton;
     private JButton generateButton;
+    private JButton loadButton;
+    private JButton saveButton;
+    private JCheckBox animateCheckBox;
+    private JCheckBox weightedCheckBox;
+    private JCheckBox editCheckBox;
     private JTextField sizeTextField;
     private JLabel statusLabel;
     private JLabel memoryLabel;
     private JLabel timeLabel;
     
-    // defines colors used to draw maze parts
-    private static final Color WALL_COLOR = Color.BLACK;
-    private static final Color PATH_COLOR = Color.WHITE;
-    private static final Color START_COLOR = Color.GREEN;
-    private static final Color END_COLOR = Color.RED;
-    private static final Color SOLUTION_COLOR = Color.BLUE;
-    private static final Color VISITED_COLOR = new Color(200, 200, 255);
-    
     /* CONSTRUCTOR */
     // main method that sets up GUI window and components
     public MazeSolverApp() {
@@ -44,21 +68,36 @@ public class MazeSolverApp extends JFrame {
         sizeTextField = new JTextField(5);
         sizeTextField.setText(String.valueOf(mazeSize));
         
-        // dropdown for choosing algorithm (BFS/DFS)
-        algorithmComboBox = new JComboBox<>();
-        algorithmComboBox.addItem("BFS (Queue)");
-        algorithmComboBox.addItem("DFS (Stack)");
+        // dropdown for choosing algorithm (BFS/DFS/A*/Greedy)
+        algorithmComboBox = new JComboBox<>(Algorithm.values());
         
         // generate & solve buttons
         generateButton = new JButton("Generate Maze");
         solveButton = new JButton("Solve Maze");
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false); // only while a solve is running
+        // load & save buttons (text files, or binary files ending in .maze)
+        loadButton = new JButton("Load...");
+        saveButton = new JButton("Save...");
+        // shows the search spreading through the maze while it runs
+        animateCheckBox = new JCheckBox("Animate");
+        // generates loops and costlier terrain (digits 1-9) for Dijkstra
+        weightedCheckBox = new JCheckBox("Weighted");
+        // clicking a cell turns it into a wall or back into a path, and the path follows
+        editCheckBox = new JCheckBox("Edit walls");
         
         // adds all control elements to the top bar
         controlPanel.add(sizeLabel);
         controlPanel.add(sizeTextField);
         controlPanel.add(algorithmComboBox);
+        controlPanel.add(weightedCheckBox);
         controlPanel.add(generateButton);
         controlPanel.add(solveButton);
+        controlPanel.add(cancelButton);
+        controlPanel.add(animateCheckBox);
+        controlPanel.add(editCheckBox);
+        controlPanel.add(loadButton);
+        controlPanel.add(saveButton);
         
         // Status panel
         JPanel statusPanel = new JPanel();
@@ -74,14 +113,9 @@ public class MazeSolverApp extends JFrame {
         statusPanel.add(memoryLabel);
         statusPanel.add(timeLabel);
         
-        // Maze panel: draws maze visually
-        mazePanel = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                drawMaze(g);
-            }
-        };
+        // Maze panel: draws maze visually from a cached image (wheel = zoom, drag = pan, double-click = fit)
+        mazePanel = new MazeView();
+        editCheckBox.addItemListener(e -> mazePanel.setCellClickListener(editCheckBox.isSelected() ? this::toggleWall : null));
         
         // Add components to window 
         add(controlPanel, BorderLayout.NORTH);
@@ -90,6 +124,7 @@ public class MazeSolverApp extends JFrame {
         
         // Generate initial maze
         maze = MazeSolver.generateMaze(mazeSize, mazeSize);
+        mazePanel.setMaze(maze);
         
         // Add action listeners to generate maze button
         generateButton.addActionListener(new ActionListener() {
@@ -98,33 +133,33 @@ public class MazeSolverApp extends JFrame {
                 try {
                     // read and parse maze size from input text field
                     mazeSize = Integer.parseInt(sizeTextField.getText().trim());
-                    // clamp maze size to minimum of 5 and maximum of 100
+                    // clamp maze size to minimum of 5 and maximum of MAX_SIZE
                     if (mazeSize < 5) {
                         mazeSize = 5;
                         sizeTextField.setText("5"); // update input field
-                    } else if (mazeSize > 100) {
-                        mazeSize = 100;
-                        sizeTextField.setText("100");
+                    } else if (mazeSize > MAX_SIZE) {
+                        mazeSize = MAX_SIZE;
+                        sizeTextField.setText(String.valueOf(MAX_SIZE));
                     }
                     
-                    // record memory usage before generation
-                    long startMemory = getMemoryUsage();
-                    // record start time in nanoseconds
-                    long startTime = System.nanoTime();
-                    
-                    // generate a new maze of specified size
-                    maze = MazeSolver.generateMaze(mazeSize, mazeSize);
+                    int size = mazeSize;
+                    boolean weighted = weightedCheckBox.isSelected();
+                    cancelSolve(); // the running solve belongs to the old maze
+                    statusLabel.setText("Generating maze...");
+                    generateButton.setEnabled(false);
                     
-                    // record time and memory after generation
-                    long endTime = System.nanoTime();
-                    long endMemory = getMemoryUsage();
-                    
-                    // update status label
-                    updatePerformanceLabels(startTime, endTime, startMemory, endMemory);
-                    statusLabel.setText("New maze generated");
-                    
-                    // repaint the panel to display new maze
-                    mazePanel.repaint();
+                    // big mazes take a while to generate and render, so both run off the Event Dispatch Thread
+                    tasks.execute(() -> {
+                        try {
+                            generateInBackground(size, weighted);
+                        } catch (Throwable ex) {
+                            // e.g. OutOfMemoryError on a huge maze: the Generate button must come back
+                            SwingUtilities.invokeLater(() -> {
+                                statusLabel.setText("Could not generate maze: " + describe(ex));
+                                generateButton.setEnabled(true);
+                            });
+                        }
+                    });
                 } catch (NumberFormatException ex) {
                     // show error text if the input is not a valid number
                     JOptionPane.showMessageDialog(MazeSolverApp.this, 
@@ -142,127 +177,308 @@ public class MazeSolverApp extends JFrame {
             }
         });
         
+        // cancel stops the running solve at its next cancellation check
+        cancelButton.addActionListener(e -> {
+            if (cancelSolve()) statusLabel.setText("Solve cancelled");
+        });
+        
+        // add action listeners to the load & save buttons
+        loadButton.addActionListener(e -> loadMaze());
+        saveButton.addActionListener(e -> saveMaze());
+        
         pack(); // let the layout manager calculate the optimal layout size
         setSize(800, 600); // set window size
         setLocationRelativeTo(null); // center application window on screen
     }
     
+    // generates and renders a new maze on a task thread, then swaps both in on the EDT
+    private void generateInBackground(int size, boolean weighted) {
+        // record bytes allocated by this thread and start time before generation
+        long startBytes = SolverMetrics.currentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        
+        // generate a new maze of specified size
+        char[][] generated = weighted
+                ? MazeSolver.generateWeightedMaze(size, size)
+                : MazeSolver.generateMaze(size, size);
+        
+        // record time and allocation after generation
+        long endTime = System.nanoTime();
+        long endBytes = SolverMetrics.currentThreadAllocatedBytes();
+        
+        // render the new maze into an image here, then swap both in on the EDT
+        BufferedImage image = MazeView.render(generated);
+        
+        // update status label
+        SwingUtilities.invokeLater(() -> {
+            setMaze(generated);
+            mazePanel.showImage(image);
+            timeLabel.setText(String.format("Time: %.2f ms", (endTime - startTime) / 1_000_000.0));
+            memoryLabel.setText("Memory: " + MazeSolver.formatBytes(startBytes < 0 ? -1 : endBytes - startBytes) + " allocated");
+            statusLabel.setText("New maze generated");
+            generateButton.setEnabled(true);
+        });
+    }
+    
+    /* LOAD & SAVE */
+    private void loadMaze() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            // MazeFiles detects binary files by their header, anything else is read as text
+            char[][] loaded = MazeFiles.read(chooser.getSelectedFile().toPath()).toChars();
+            setMaze(loaded);
+            sizeTextField.setText(String.valueOf(loaded.length));
+            statusLabel.setText("Loaded " + chooser.getSelectedFile().getName());
+            mazePanel.setMaze(loaded);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not load maze: " + ex.getMessage(),
+                    "Load Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void saveMaze() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        try {
+            // .maze = compact binary format, anything else = text (keeps the solution marks)
+            if (file.toString().endsWith(".maze")) {
+                MazeFiles.writeBinary(BitMazeGrid.fromChars(maze), file);
+            } else {
+                MazeFiles.writeText(solvedMaze != null ? solvedMaze : maze, file);
+            }
+            statusLabel.setText("Saved " + file.getFileName());
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not save maze: " + ex.getMessage(),
+                    "Save Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
     /* SOLVEMAZE METHOD */
     private void solveMaze() {
+        cancelSolve(); // a new solve replaces the one still running
+        
+        // read the controls here on the Event Dispatch Thread, not in the task
+        Algorithm algorithm = (Algorithm) algorithmComboBox.getSelectedItem();
+        boolean animate = animateCheckBox.isSelected();
+        char[][] snapshot = maze; // never modified, so it is safe to hand to another thread
+        int id = ++solveId;
+        
         // update the status bar to indicate maze has started solving
         statusLabel.setText("Solving maze...");
+        cancelButton.setEnabled(true);
         
-        // Run in a separate thread to keep UI responsive
-        new Thread(() -> {
-            // record memory and time usage before solving
-            long startMemory = getMemoryUsage();
-            long startTime = System.nanoTime();
-            
-            // create a list to hold solution path
-            List<MazeSolver.Position> solution;
-            // check which algorithm chosen (BFS = 0, DFS = 1)
-            boolean useQueue = algorithmComboBox.getSelectedIndex() == 0;
-            
-            // solve maze using chosen algorithm
-            if (useQueue) {
-                solution = MazeSolver.solveMazeWithQueue(maze); // BFS
-            } else {
-                solution = MazeSolver.solveMazeWithStack(maze); // DFS
-            }
-            
-            // record memory and time usage after solving
-            long endTime = System.nanoTime();
-            long endMemory = getMemoryUsage();
-            
-            // if solution found
-            if (solution != null) {
-                MazeSolver.markSolution(maze, solution); // mark path on maze
-                
-                // update the UI on the Event Dispatch Thread
+        // Run as a cancellable task to keep UI responsive
+        currentSolve = tasks.submit(() -> {
+            try {
+                solveInBackground(id, algorithm, animate, snapshot);
+            } catch (CancellationException ex) {
+                // cancelled: cancelSolve() already reset the controls
+            } catch (Throwable ex) {
+                // e.g. OutOfMemoryError on a huge maze: report it rather than leave "Solving maze..." up
                 SwingUtilities.invokeLater(() -> {
-                    statusLabel.setText("Maze solved! Path length: " + (solution.size() - 1) + " steps");
-                    updatePerformanceLabels(startTime, endTime, startMemory, endMemory);
-                    mazePanel.repaint(); // redraw maze with the solution
-                });
-            } else { // no solution found
-                SwingUtilities.invokeLater(() -> {
-                    statusLabel.setText("No solution found!");
-                    updatePerformanceLabels(startTime, endTime, startMemory, endMemory);
+                    if (!finishSolve(id, null)) return;
+                    statusLabel.setText("Solve failed: " + describe(ex));
                 });
             }
-        }).start(); // start the background thread
+        });
     }
     
-    private void updatePerformanceLabels(long startTime, long endTime, long startMemory, long endMemory) {
-        // calculate time in milliseconds
-        double executionTime = (endTime - startTime) / 1_000_000.0;
-        // calculate memory in kilobytes
-        long memoryUsed = (endMemory - startMemory) / 1024;
+    // solve number id, on its task thread; the results go to the EDT unless a newer solve took over
+    private void solveInBackground(int id, Algorithm algorithm, boolean animate, char[][] snapshot) {
+        GridSolver solver = algorithm.newSolver();
+        // every solve draws into its own clean image, shown as soon as it is ready
+        BufferedImage image = MazeView.render(snapshot);
+        SwingUtilities.invokeLater(() -> {
+            if (id != solveId) return;
+            mazePanel.showImage(image);
+            drawnPath = null;
+        });
+        if (animate) {
+            solver.setSearchListener(mazePanel.newAnimation(image));
+        }
+        
+        // a maze solved before (same walls, start, end and algorithm) comes straight from the cache
+        MazeGrid grid = new CharMazeGrid(snapshot);
+        SolveCache cache = MazeSolver.solveCache();
+        SolveCache.Key key = SolveCache.keyOf(grid, algorithm);
+        SolveCache.CachedPath cached = cache.get(key);
+        if (cached != null) {
+            List<MazeSolver.Position> solution = cached.toPositions();
+            char[][] solved = markSolution(snapshot, solution);
+            int[] path = cellsOf(solution, grid.cols());
+            SwingUtilities.invokeLater(() -> {
+                if (!finishSolve(id, solved)) return;
+                showSolution(image, solution);
+                drawnPath = path;
+                statusLabel.setText(solution != null
+                        ? "Maze solved (cached)! Path length: " + (solution.size() - 1) + " steps"
+                        : "No solution found! (cached)");
+                timeLabel.setText("Time: 0 ms (path taken from the cache)");
+                memoryLabel.setText("Cache: " + cache);
+            });
+            return;
+        }
         
-        // update the labels in the GUI
-        timeLabel.setText(String.format("Time: %.2f ms", executionTime));
-        memoryLabel.setText(String.format("Memory: %d KB", memoryUsed));
+        // solve maze using chosen algorithm (SolverMetrics measures time, allocation and search effort)
+        SolveResult result = solver.solveWithMetrics(algorithm, grid);
+        // visited cells (compared with plain BFS for the bidirectional search)
+        String visited = MazeSolver.visitedSummary(algorithm, solver, grid);
+        List<MazeSolver.Position> solution = result.getPath();
+        SolverMetrics metrics = result.getMetrics();
+        int expanded = metrics.getCellsExpanded();
+        cache.put(key, solution);
+        char[][] solved = markSolution(snapshot, solution);
+        int[] path = cellsOf(solution, grid.cols());
+        // on weighted terrain the cost of the path matters more than its length
+        String cost = solution != null && grid.isWeighted() ? " (cost " + MazeSolver.pathCost(grid, solution) + ")" : "";
+        
+        // update the UI on the Event Dispatch Thread (unless a newer solve or maze took over)
+        SwingUtilities.invokeLater(() -> {
+            if (!finishSolve(id, solved)) return;
+            showSolution(image, solution);
+            drawnPath = path;
+            if (solution != null) {
+                statusLabel.setText("Maze solved! Path length: " + (solution.size() - 1) + " steps" + cost + ", "
+                        + expanded + " cells expanded, visited: " + visited);
+            } else { // no solution found
+                statusLabel.setText("No solution found! (" + expanded + " cells expanded, visited: " + visited + ")");
+            }
+            updatePerformanceLabels(metrics);
+        });
     }
     
-    private void drawMaze(Graphics g) {
-        // dont draw anything if the maze is not initialized
-        if (maze == null) return;
-        
-        // get the dimensions of the panel
-        int width = mazePanel.getWidth();
-        int height = mazePanel.getHeight();
+    // if solution found: marks the path on a copy of the maze (returned)
+    private char[][] markSolution(char[][] snapshot, List<MazeSolver.Position> solution) {
+        if (solution == null) return null;
+        char[][] marked = new char[snapshot.length][];
+        for (int row = 0; row < snapshot.length; row++) {
+            marked[row] = snapshot[row].clone();
+        }
+        MazeSolver.markSolution(marked, solution);
+        return marked;
+    }
+    
+    // draws the path into this solve's image (EDT: the image may already be on screen)
+    private void showSolution(BufferedImage image, List<MazeSolver.Position> solution) {
+        if (solution == null) return;
+        mazePanel.setCells(image, solution, MazeSolver.SOLUTION); // only the path cells are redrawn
+    }
+    
+    // the path as cell indices (for MazeView.updatePath), null if there is none
+    private static int[] cellsOf(List<MazeSolver.Position> solution, int cols) {
+        if (solution == null) return null;
+        int[] cells = new int[solution.size()];
+        for (int i = 0; i < cells.length; i++) {
+            MazeSolver.Position position = solution.get(i);
+            cells[i] = position.row * cols + position.col;
+        }
+        return cells;
+    }
+    
+    // ends solve number id on the EDT; false if a newer solve or maze took over in the meantime
+    private boolean finishSolve(int id, char[][] solved) {
+        if (id != solveId) return false;
+        currentSolve = null;
+        cancelButton.setEnabled(false);
+        solvedMaze = solved;
+        return true;
+    }
+    
+    // interrupts the running solve (the solver stops at its next check); true if one was running
+    private boolean cancelSolve() {
+        cancelButton.setEnabled(false);
+        solveId++; // results still on their way from the old task are ignored
+        if (currentSolve == null) return false;
+        boolean running = currentSolve.cancel(true);
+        currentSolve = null;
+        return running;
+    }
+    
+    // replaces the current maze (EDT only); a solve of the old maze is cancelled
+    private void setMaze(char[][] newMaze) {
+        cancelSolve();
+        maze = newMaze;
+        solvedMaze = null;
+        mazeVersion++; // the next edit builds a new IncrementalSolver
+        drawnPath = null;
+    }
+    
+    /* EDITING WALLS */
+    // click on a cell while "Edit walls" is ticked (EDT): a wall becomes a path and a path a wall.
+    // The maze is copied on write (the array of rows plus the edited row), so arrays already handed
+    // to a solve or an earlier edit never change. The path is repaired on the edit thread.
+    private void toggleWall(int row, int col) {
+        char symbol = maze[row][col];
+        if (symbol == MazeSolver.START || symbol == MazeSolver.END) return;
+        boolean open = symbol == MazeSolver.WALL; // digits of a weighted maze are open too
+        char newSymbol = open ? MazeSolver.PATH : MazeSolver.WALL;
         
-        // calculate the width & height of each cell
-        int cellWidth = width / maze[0].length;
-        int cellHeight = height / maze.length;
+        cancelSolve(); // a running solve is for the maze before the edit
+        char[][] edited = maze.clone();
+        edited[row] = maze[row].clone();
+        edited[row][col] = newSymbol;
+        maze = edited;
+        solvedMaze = null;
+        mazePanel.setCell(row, col, newSymbol);
         
-        // loop through each cell in maze
-        for (int row = 0; row < maze.length; row++) {
-            for (int col = 0; col < maze[row].length; col++) {
-                // calculate top left corner of the cell
-                int x = col * cellWidth;
-                int y = row * cellHeight;
-                
-                // set the color based on the maze cell type
-                switch (maze[row][col]) {
-                    case MazeSolver.WALL:
-                        g.setColor(WALL_COLOR);
-                        break;
-                    case MazeSolver.PATH:
-                        g.setColor(PATH_COLOR);
-                        break;
-                    case MazeSolver.START:
-                        g.setColor(START_COLOR);
-                        break;
-                    case MazeSolver.END:
-                        g.setColor(END_COLOR);
-                        break;
-                    case MazeSolver.SOLUTION:
-                        g.setColor(SOLUTION_COLOR);
-                        break;
-                    case MazeSolver.VISITED:
-                        g.setColor(VISITED_COLOR);
-                        break;
-                    default:
-                        g.setColor(Color.GRAY); // default color
-                }
-                
-                // fill the cell with the selected color
-                g.fillRect(x, y, cellWidth, cellHeight);
-                
-                // draw a gray border around the cell
-                g.setColor(Color.GRAY);
-                g.drawRect(x, y, cellWidth, cellHeight);
+        int version = mazeVersion;
+        int cell = row * edited[0].length + col;
+        edits.execute(() -> {
+            try {
+                repairPath(edited, version, cell, open);
+            } catch (Throwable ex) {
+                // the solver may be half way through an update: drop it, the next edit builds a new one
+                editor = null;
+                SwingUtilities.invokeLater(() -> {
+                    if (version == mazeVersion) statusLabel.setText("Could not repair the path: " + describe(ex));
+                });
             }
+        });
+    }
+    
+    // edit thread: applies one edit to the IncrementalSolver and redraws the path cells that changed.
+    // The first edit of a maze builds the solver from the edited maze, which is a full search.
+    private void repairPath(char[][] edited, int version, int cell, boolean open) {
+        long startTime = System.nanoTime();
+        boolean fresh = editor == null || editorVersion != version;
+        if (fresh) {
+            editor = new IncrementalSolver(BitMazeGrid.fromChars(edited)); // already has this edit
+            editorVersion = version;
+        } else {
+            editor.setOpen(cell, open);
         }
+        int steps = editor.solve();
+        double millis = (System.nanoTime() - startTime) / 1_000_000.0;
+        int expanded = editor.getExpandedCount();
+        int[] path = editor.pathCells();
+        
+        SwingUtilities.invokeLater(() -> {
+            if (version != mazeVersion) return; // a new maze took over
+            if (path != drawnPath) { // the same array means the path didn't change
+                mazePanel.updatePath(maze, drawnPath, path);
+                drawnPath = path;
+            }
+            String repair = String.format("%s in %.2f ms (%d cells expanded)",
+                    fresh ? "solved" : "repaired", millis, expanded);
+            statusLabel.setText(steps >= 0 ? "Path length: " + steps + " steps, " + repair
+                    : "No path after the edit, " + repair);
+        });
+    }
+    
+    // text for the status bar when a task fails
+    private static String describe(Throwable ex) {
+        return ex.getMessage() == null ? ex.toString() : ex.getMessage() + " (" + ex.getClass().getSimpleName() + ")";
     }
     
-    /* MEASURE JVM MEMORY USE */
-    private long getMemoryUsage() {
-        // get a reference to the Java memory manager
-        Runtime runtime = Runtime.getRuntime();
-        // return used memory = total - free
-        return runtime.totalMemory() - runtime.freeMemory();
+    private void updatePerformanceLabels(SolverMetrics metrics) {
+        // time split into searching and rebuilding the path, in milliseconds
+        timeLabel.setText(String.format("Time: %.2f ms (search %.2f ms, path %.2f ms), max frontier: %d cells",
+                metrics.getTotalNanos() / 1_000_000.0, metrics.getSearchNanos() / 1_000_000.0,
+                metrics.getReconstructNanos() / 1_000_000.0, metrics.getMaxFrontier()));
+        // bytes allocated by the solving thread
+        memoryLabel.setText("Memory: " + MazeSolver.formatBytes(metrics.getAllocatedBytes()) + " allocated");
     }
     
     /* START THE APPLICATION */
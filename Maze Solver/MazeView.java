@@ -0,0 +1,352 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.List;
+
+/* MAZE VIEW */
+// Draws the maze from a cached image with one pixel per cell, instead of calling fillRect and
+// drawRect for every cell on every repaint. The image is built once per maze by render() (on
+// any thread, so big mazes can be rendered off the Event Dispatch Thread), cells that change
+// later (visited, solution) are written straight into its pixel array, and only their screen
+// area is repainted. Each solve gets its own image, so a cancelled solve that is still winding
+// down can't draw over the next one. Painting scales just the visible part of the image, so huge mazes stay smooth.
+//
+// Mouse wheel zooms around the cursor, dragging pans, double-click fits the maze to the panel.
+// While a CellClickListener is set, clicks go to it instead (wall editing).
+//
+// A running search can be animated through newAnimation(image): the solver's event batches are
+// written into the pixels on the solving thread, and a Swing timer repaints the area they
+// touched at most FRAMES_PER_SECOND times a second, so the EDT never gets one call per batch.
+public class MazeView extends JPanel {
+    // defines colors used to draw maze parts
+    private static final Color WALL_COLOR = Color.BLACK;
+    private static final Color PATH_COLOR = Color.WHITE;
+    private static final Color START_COLOR = Color.GREEN;
+    private static final Color END_COLOR = Color.RED;
+    private static final Color SOLUTION_COLOR = Color.BLUE;
+    private static final Color VISITED_COLOR = new Color(200, 200, 255);
+    private static final Color FRONTIER_COLOR = new Color(255, 220, 120);
+    private static final Color GRID_COLOR = Color.GRAY;
+    private static final int FRAMES_PER_SECOND = 30;
+    private static final double MIN_GRID_ZOOM = 6; // draw cell borders only when cells are this big
+
+    private volatile BufferedImage image; // one pixel per cell, the one being shown
+    private double zoom = 1;              // screen pixels per cell
+    private double offsetX, offsetY;      // screen position of the top-left corner of the maze
+    private boolean fitToPanel = true;    // keep the whole maze visible until the user zooms or pans
+    private Point dragStart;
+    private CellClickListener cellClickListener; // null: clicks only fit the maze
+
+    // receives clicks on cells (drags still pan)
+    public interface CellClickListener {
+        void cellClicked(int row, int col);
+    }
+
+    // cells changed by an animation since the last frame (guarded by dirtyLock)
+    private final Object dirtyLock = new Object();
+    private int dirtyMinRow = Integer.MAX_VALUE, dirtyMinCol = Integer.MAX_VALUE;
+    private int dirtyMaxRow = -1, dirtyMaxCol = -1;
+
+    public MazeView() {
+        setBackground(Color.DARK_GRAY);
+
+        // zoom around the mouse position
+        addMouseWheelListener(e -> {
+            if (image == null) return;
+            double factor = Math.pow(1.2, -e.getPreciseWheelRotation());
+            double newZoom = Math.max(minZoom() / 2, Math.min(64, zoom * factor));
+            offsetX = e.getX() - (e.getX() - offsetX) * newZoom / zoom;
+            offsetY = e.getY() - (e.getY() - offsetY) * newZoom / zoom;
+            zoom = newZoom;
+            fitToPanel = false;
+            repaint();
+        });
+
+        // drag to pan, double-click to fit
+        MouseAdapter pan = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) return;
+                offsetX += e.getX() - dragStart.x;
+                offsetY += e.getY() - dragStart.y;
+                dragStart = e.getPoint();
+                fitToPanel = false;
+                repaint();
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                BufferedImage current = image;
+                if (cellClickListener != null && current != null) {
+                    int col = (int) Math.floor((e.getX() - offsetX) / zoom);
+                    int row = (int) Math.floor((e.getY() - offsetY) / zoom);
+                    if (row >= 0 && row < current.getHeight() && col >= 0 && col < current.getWidth()) {
+                        cellClickListener.cellClicked(row, col);
+                    }
+                    return;
+                }
+                if (e.getClickCount() == 2) {
+                    fitToPanel = true;
+                    repaint();
+                }
+            }
+        };
+        addMouseListener(pan);
+        addMouseMotionListener(pan);
+
+        // frame timer: repaints whatever the animation changed since the last tick
+        Timer frames = new Timer(1000 / FRAMES_PER_SECOND, e -> repaintDirty());
+        frames.start();
+    }
+
+    // every click on a cell goes to the listener (so double-click doesn't fit while it is set);
+    // null switches back to normal clicks
+    public void setCellClickListener(CellClickListener listener) {
+        cellClickListener = listener;
+    }
+
+    /* UPDATING THE IMAGE */
+
+    // renders a maze into a new image with one pixel per cell; the maze is only read, so this
+    // can run on any thread (e.g. next to a solver working on the same array)
+    public static BufferedImage render(char[][] maze) {
+        int rows = maze.length;
+        int cols = maze[0].length;
+        BufferedImage newImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_RGB);
+        int[] newPixels = pixelsOf(newImage);
+        for (int row = 0; row < rows; row++) {
+            char[] line = maze[row];
+            int base = row * cols;
+            for (int col = 0; col < cols; col++) {
+                newPixels[base + col] = colorOf(line[col]);
+            }
+        }
+        return newImage;
+    }
+
+    // renders the maze on the calling thread and shows it on the EDT
+    public void setMaze(char[][] maze) {
+        BufferedImage newImage = render(maze);
+        SwingUtilities.invokeLater(() -> showImage(newImage));
+    }
+
+    // shows an image made by render(); call on the EDT
+    public void showImage(BufferedImage newImage) {
+        BufferedImage old = image;
+        if (old == null || old.getWidth() != newImage.getWidth() || old.getHeight() != newImage.getHeight()) {
+            fitToPanel = true; // a new size starts fully visible
+        }
+        image = newImage;
+        repaint();
+    }
+
+    // recolours a single cell of the shown image and repaints only that spot
+    public void setCell(int row, int col, char symbol) {
+        BufferedImage current = image;
+        if (current == null) return;
+        pixelsOf(current)[row * current.getWidth() + col] = colorOf(symbol);
+        repaintCells(row, col, row, col);
+    }
+
+    // recolours the given cells (e.g. a solution path) in an image from render() and repaints the
+    // area they cover; start and end keep their colours
+    public void setCells(BufferedImage target, List<MazeSolver.Position> cells, char symbol) {
+        int[] targetPixels = pixelsOf(target);
+        int cols = target.getWidth();
+        int color = colorOf(symbol);
+        int start = START_COLOR.getRGB();
+        int end = END_COLOR.getRGB();
+        int minRow = Integer.MAX_VALUE, minCol = Integer.MAX_VALUE, maxRow = -1, maxCol = -1;
+        for (MazeSolver.Position pos : cells) {
+            int old = targetPixels[pos.row * cols + pos.col];
+            if (old == start || old == end) continue;
+            targetPixels[pos.row * cols + pos.col] = color;
+            minRow = Math.min(minRow, pos.row);
+            maxRow = Math.max(maxRow, pos.row);
+            minCol = Math.min(minCol, pos.col);
+            maxCol = Math.max(maxCol, pos.col);
+        }
+        if (maxRow >= 0 && target == image) repaintCells(minRow, minCol, maxRow, maxCol);
+    }
+
+    // moves the drawn path on the shown image from oldPath to newPath (cell indices, start first,
+    // either may be null): cells of the old path get their colour from the maze back, then the new
+    // path is painted over them, and only the area they cover is repainted. Call on the EDT.
+    public void updatePath(char[][] maze, int[] oldPath, int[] newPath) {
+        BufferedImage current = image;
+        if (current == null) return;
+        int[] currentPixels = pixelsOf(current);
+        int cols = current.getWidth();
+        int solution = SOLUTION_COLOR.getRGB();
+        int minRow = Integer.MAX_VALUE, minCol = Integer.MAX_VALUE, maxRow = -1, maxCol = -1;
+        for (int pass = 0; pass < 2; pass++) {
+            int[] cells = pass == 0 ? oldPath : newPath;
+            if (cells == null) continue;
+            for (int cell : cells) {
+                int row = cell / cols;
+                int col = cell - row * cols;
+                char symbol = maze[row][col];
+                boolean endpoint = symbol == MazeSolver.START || symbol == MazeSolver.END;
+                currentPixels[cell] = pass == 1 && !endpoint ? solution : colorOf(symbol);
+                if (row < minRow) minRow = row;
+                if (row > maxRow) maxRow = row;
+                if (col < minCol) minCol = col;
+                if (col > maxCol) maxCol = col;
+            }
+        }
+        if (maxRow >= 0) repaintCells(minRow, minCol, maxRow, maxCol);
+    }
+
+    // listener that colours frontier and expanded cells of an image from render() as a solver
+    // reports them; the frame timer repaints them once that image is shown
+    public SearchListener newAnimation(BufferedImage target) {
+        return new SearchListener() {
+            @Override
+            public void frontierAdded(int[] cells, int count) {
+                paintCells(target, cells, count, FRONTIER_COLOR.getRGB());
+            }
+
+            @Override
+            public void cellsExpanded(int[] cells, int count) {
+                paintCells(target, cells, count, VISITED_COLOR.getRGB());
+            }
+        };
+    }
+
+    // writes one batch of cells into the image and adds them to the area the next frame repaints
+    private void paintCells(BufferedImage target, int[] cells, int count, int color) {
+        int[] targetPixels = pixelsOf(target);
+        int cols = target.getWidth();
+        int start = START_COLOR.getRGB();
+        int end = END_COLOR.getRGB();
+        int minRow = Integer.MAX_VALUE, minCol = Integer.MAX_VALUE, maxRow = -1, maxCol = -1;
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            int old = targetPixels[cell];
+            if (old == start || old == end) continue;
+            targetPixels[cell] = color;
+            int row = cell / cols;
+            int col = cell - row * cols;
+            if (row < minRow) minRow = row;
+            if (row > maxRow) maxRow = row;
+            if (col < minCol) minCol = col;
+            if (col > maxCol) maxCol = col;
+        }
+        if (maxRow < 0) return;
+        synchronized (dirtyLock) {
+            dirtyMinRow = Math.min(dirtyMinRow, minRow);
+            dirtyMaxRow = Math.max(dirtyMaxRow, maxRow);
+            dirtyMinCol = Math.min(dirtyMinCol, minCol);
+            dirtyMaxCol = Math.max(dirtyMaxCol, maxCol);
+        }
+    }
+
+    // the image's own pixel array (TYPE_INT_RGB)
+    private static int[] pixelsOf(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    // called by the frame timer on the EDT
+    private void repaintDirty() {
+        int minRow, minCol, maxRow, maxCol;
+        synchronized (dirtyLock) {
+            if (dirtyMaxRow < 0) return; // nothing changed since the last frame
+            minRow = dirtyMinRow;
+            minCol = dirtyMinCol;
+            maxRow = dirtyMaxRow;
+            maxCol = dirtyMaxCol;
+            dirtyMinRow = dirtyMinCol = Integer.MAX_VALUE;
+            dirtyMaxRow = dirtyMaxCol = -1;
+        }
+        repaintCells(minRow, minCol, maxRow, maxCol);
+    }
+
+    private static int colorOf(char symbol) {
+        switch (symbol) {
+            case MazeSolver.WALL: return WALL_COLOR.getRGB();
+            case MazeSolver.PATH: return PATH_COLOR.getRGB();
+            case MazeSolver.START: return START_COLOR.getRGB();
+            case MazeSolver.END: return END_COLOR.getRGB();
+            case MazeSolver.SOLUTION: return SOLUTION_COLOR.getRGB();
+            case MazeSolver.VISITED: return VISITED_COLOR.getRGB();
+            default:
+                if (symbol >= '2' && symbol <= '9') {
+                    // weighted terrain: the costlier the cell, the darker the brown
+                    int step = symbol - '1';
+                    return new Color(255 - step * 12, 245 - step * 18, 230 - step * 24).getRGB();
+                }
+                return Color.GRAY.getRGB(); // default color
+        }
+    }
+
+    // repaints only the screen rectangle covering cells (row1, col1) .. (row2, col2)
+    private void repaintCells(int row1, int col1, int row2, int col2) {
+        int x = (int) Math.floor(offsetX + col1 * zoom) - 1;
+        int y = (int) Math.floor(offsetY + row1 * zoom) - 1;
+        int width = (int) Math.ceil((col2 - col1 + 1) * zoom) + 3;
+        int height = (int) Math.ceil((row2 - row1 + 1) * zoom) + 3;
+        repaint(x, y, width, height);
+    }
+
+    /* PAINTING */
+
+    private double minZoom() {
+        BufferedImage current = image;
+        if (current == null || getWidth() == 0 || getHeight() == 0) return 1;
+        return Math.min((double) getWidth() / current.getWidth(), (double) getHeight() / current.getHeight());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        BufferedImage current = image;
+        if (current == null) return; // dont draw anything if the maze is not initialized
+        int cols = current.getWidth();
+        int rows = current.getHeight();
+
+        if (fitToPanel) {
+            // whole maze, centred, like the original fixed-size drawing
+            zoom = minZoom();
+            offsetX = (getWidth() - cols * zoom) / 2;
+            offsetY = (getHeight() - rows * zoom) / 2;
+        }
+
+        // only the cells inside the clip area are drawn
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        int firstCol = Math.max(0, (int) Math.floor((clip.x - offsetX) / zoom));
+        int firstRow = Math.max(0, (int) Math.floor((clip.y - offsetY) / zoom));
+        int lastCol = Math.min(cols, (int) Math.ceil((clip.x + clip.width - offsetX) / zoom));
+        int lastRow = Math.min(rows, (int) Math.ceil((clip.y + clip.height - offsetY) / zoom));
+        if (firstCol >= lastCol || firstRow >= lastRow) return;
+
+        int x1 = (int) Math.round(offsetX + firstCol * zoom);
+        int y1 = (int) Math.round(offsetY + firstRow * zoom);
+        int x2 = (int) Math.round(offsetX + lastCol * zoom);
+        int y2 = (int) Math.round(offsetY + lastRow * zoom);
+
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.drawImage(current, x1, y1, x2, y2, firstCol, firstRow, lastCol, lastRow, null);
+
+        // draw a gray border around the visible cells once they are big enough to see
+        if (zoom >= MIN_GRID_ZOOM) {
+            g2.setColor(GRID_COLOR);
+            for (int col = firstCol; col <= lastCol; col++) {
+                int x = (int) Math.round(offsetX + col * zoom);
+                g2.drawLine(x, y1, x, y2);
+            }
+            for (int row = firstRow; row <= lastRow; row++) {
+                int y = (int) Math.round(offsetY + row * zoom);
+                g2.drawLine(x1, y, x2, y);
+            }
+        }
+    }
+}
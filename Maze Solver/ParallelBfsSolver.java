@@ -0,0 +1,252 @@
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* PARALLEL LEVEL-SYNCHRONOUS BFS */
+// Expands the BFS one layer at a time: the current frontier is split into chunks that run on a
+// ForkJoinPool, and each chunk claims newly reached cells in a shared atomic bitset (compare-and-set),
+// so every cell gets exactly one parent. Because whole layers are finished before the next one
+// starts, the path found is a shortest path, the same length as the sequential BFS (although the
+// exact cells can differ when several shortest paths exist).
+// Small mazes are not worth the thread overhead, so below sequentialThreshold cells the
+// sequential PrimitiveSolver is used instead.
+public class ParallelBfsSolver implements GridSolver {
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 20; // about 1000 x 1000
+    // threads used by Algorithm.PARALLEL_BFS (GUI, CLI menu, batch, serve): -Dmazesolver.parallelism=N,
+    // or --parallelism N for batch and serve; every core when it isn't set
+    public static final String PARALLELISM_PROPERTY = "mazesolver.parallelism";
+    private static final int CHUNK = 2048; // frontier cells handled by one task
+    // one pool per parallelism, shared by every solver: callers make a new solver per solve, and a
+    // pool per instance would leave its threads behind each time (pool threads are daemons)
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final int parallelism;
+    private final int sequentialThreshold;
+    private final PrimitiveSolver sequential = new PrimitiveSolver(true);
+
+    private int[] parent = new int[0];
+    private int[] frontier = new int[0];
+    private int[] nextFrontier = new int[0];
+    private AtomicLongArray visited = new AtomicLongArray(0);
+    private final AtomicInteger nextSize = new AtomicInteger();
+    private int expandedCount;
+    private int visitedCount;
+    private int maxFrontier;
+    private long reconstructNanos;
+    private SearchEvents events; // null unless a SearchListener is set (reported per layer)
+
+    // uses defaultParallelism() threads
+    public ParallelBfsSolver() {
+        this(defaultParallelism(), DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
+    // the mazesolver.parallelism system property, or every available core
+    public static int defaultParallelism() {
+        int parallelism = Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(PARALLELISM_PROPERTY + " must be at least 1");
+        }
+        return parallelism;
+    }
+
+    // sets the parallelism of solvers created from now on (the --parallelism option)
+    public static void setDefaultParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        System.setProperty(PARALLELISM_PROPERTY, String.valueOf(parallelism));
+    }
+
+    public ParallelBfsSolver(int parallelism, int sequentialThreshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+        sequential.setSearchListener(listener);
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        int cells = grid.cellCount();
+        if (parallelism == 1 || cells < sequentialThreshold) {
+            List<MazeSolver.Position> path = sequential.solve(grid);
+            expandedCount = sequential.getExpandedCount();
+            visitedCount = sequential.getVisitedCount();
+            maxFrontier = sequential.getMaxFrontier();
+            reconstructNanos = sequential.getReconstructNanos();
+            return path;
+        }
+
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        int start = grid.start();
+        int end = grid.end();
+        if (start < 0 || end < 0) {
+            return null; // invalid maze
+        }
+        ForkJoinPool pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+        ensureCapacity(cells);
+
+        frontier[0] = start;
+        parent[start] = start;
+        claim(start);
+        int size = 1;
+        visitedCount = 1;
+        if (events != null) events.frontier(start);
+
+        while (size > 0) {
+            GridSolver.checkCancelled(); // once per layer, on the coordinating thread
+            if (size > maxFrontier) maxFrontier = size;
+            if (isVisited(end)) {
+                if (events != null) events.flush();
+                return MazeSolver.reconstructPath(parent, start, end, grid.cols(), nanos -> reconstructNanos = nanos);
+            }
+
+            // expand the whole layer, small layers stay on this thread
+            nextSize.set(0);
+            LayerTask layer = new LayerTask(grid, 0, size);
+            if (size <= CHUNK) {
+                layer.compute();
+            } else {
+                pool.invoke(layer);
+            }
+            expandedCount += size;
+            if (events != null) reportLayer(size, nextSize.get());
+
+            int[] swap = frontier;
+            frontier = nextFrontier;
+            nextFrontier = swap;
+            size = nextSize.get();
+            visitedCount += size;
+        }
+
+        if (events != null) events.flush();
+        return null; // no path found
+    }
+
+    // the pool threads don't report cells themselves; the finished layer is reported from this thread
+    private void reportLayer(int expanded, int added) {
+        for (int i = 0; i < expanded; i++) {
+            events.expanded(frontier[i]);
+        }
+        for (int i = 0; i < added; i++) {
+            events.frontier(nextFrontier[i]);
+        }
+    }
+
+    // one chunk of the current frontier; splits itself until it is small enough
+    private class LayerTask extends RecursiveAction {
+        private final MazeGrid grid;
+        private final int from;
+        private final int to;
+
+        LayerTask(MazeGrid grid, int from, int to) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LayerTask(grid, from, middle), new LayerTask(grid, middle, to));
+                return;
+            }
+
+            // collect the cells this chunk claims, then copy them into the next frontier in one go
+            int rows = grid.rows();
+            int cols = grid.cols();
+            // each cell has at most 3 new neighbours (its parent is already visited), the start 4
+            int[] found = new int[(to - from) * 3 + 1];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                int current = frontier[i];
+                int row = current / cols;
+                int col = current - row * cols;
+                if (row > 0) count = visit(grid, current, current - cols, found, count);
+                if (col + 1 < cols) count = visit(grid, current, current + 1, found, count);
+                if (row + 1 < rows) count = visit(grid, current, current + cols, found, count);
+                if (col > 0) count = visit(grid, current, current - 1, found, count);
+            }
+            int offset = nextSize.getAndAdd(count);
+            System.arraycopy(found, 0, nextFrontier, offset, count);
+        }
+    }
+
+    private int visit(MazeGrid grid, int from, int next, int[] found, int count) {
+        if (!isVisited(next) && grid.isOpen(next) && claim(next)) {
+            parent[next] = from; // only the thread that claimed the cell writes its parent
+            found[count++] = next;
+        }
+        return count;
+    }
+
+    private boolean isVisited(int cell) {
+        return (visited.get(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    // sets the visited bit; returns false if another thread got there first
+    private boolean claim(int cell) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        long old;
+        do {
+            old = visited.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+        } while (!visited.compareAndSet(word, old, old | bit));
+        return true;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    private void ensureCapacity(int cells) {
+        int words = (cells + 63) >>> 6;
+        if (parent.length < cells) {
+            parent = new int[cells];
+            frontier = new int[cells];
+            nextFrontier = new int[cells];
+            visited = new AtomicLongArray(words);
+        } else {
+            for (int i = 0; i < words; i++) {
+                visited.set(i, 0L);
+            }
+        }
+    }
+}
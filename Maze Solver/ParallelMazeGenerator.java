@@ -0,0 +1,248 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* PARALLEL MAZE GENERATOR */
+// Splits the maze into a grid of rectangular regions and carves each one on a ForkJoinPool with
+// the same recursive backtracker as MazeGenerator, each region with its own SplittableRandom.
+// Every region is then a perfect maze of its own (a spanning tree of its cells); the regions are
+// stitched together by opening exactly one wall between the neighbours of a random spanning tree
+// of the regions, so the whole maze is still perfect: one path between any two cells.
+//
+// Cells on odd rows and columns are carved, as in MazeGenerator, with S at (1, 1) and E at
+// (rows - 2, cols - 2). The region layout and every seed come from (seed, parallelism) only, in a
+// fixed order, so the same seed and parallelism always give the same maze however the tasks are
+// scheduled. The maze differs from MazeGenerator's for the same seed (regions show as long
+// straight region borders with single openings on big mazes).
+//
+// Regions share wall words along their borders, so walls are cleared with compare-and-set in an
+// AtomicLongArray (like the visited set of ParallelBfsSolver); everything else a task touches is its own.
+// Small mazes (or parallelism 1) are generated by MazeGenerator directly.
+public class ParallelMazeGenerator {
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 20; // cells, about 1000 x 1000
+    private static final int REGIONS_PER_THREAD = 4; // more regions than threads to even out the work
+    private static final int MIN_REGION_CELLS = 32;  // shortest region side, in carved cells
+
+    private ParallelMazeGenerator() {
+    }
+
+    // on every available core
+    public static BitMazeGrid generate(int rows, int cols, long seed) {
+        return generate(rows, cols, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static BitMazeGrid generate(int rows, int cols, long seed, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (rows < 5) rows = 5;
+        if (cols < 5) cols = 5;
+        if (parallelism == 1 || (long) rows * cols < DEFAULT_SEQUENTIAL_THRESHOLD) {
+            return MazeGenerator.generate(rows, cols, seed);
+        }
+
+        // carved cells ("rooms") are at odd rows and columns: roomRows x roomCols of them
+        int roomRows = rows / 2;
+        int roomCols = cols / 2;
+        int wanted = parallelism * REGIONS_PER_THREAD;
+        int across = (int) Math.max(1, Math.min(roomCols / MIN_REGION_CELLS,
+                Math.round(Math.sqrt((double) wanted * roomCols / roomRows))));
+        int down = Math.max(1, Math.min(roomRows / MIN_REGION_CELLS, (wanted + across - 1) / across));
+        int[] rowSplits = splits(roomRows, down);
+        int[] colSplits = splits(roomCols, across);
+
+        // one seed per region in row-major order, then one for the stitching
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] seeds = new long[down * across];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+
+        BitMazeGrid template = new BitMazeGrid(rows, cols); // all walls
+        long[] words = template.words();
+        AtomicLongArray walls = new AtomicLongArray(words);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RegionTask(walls, cols, rowSplits, colSplits, seeds, 0, seeds.length));
+        } finally {
+            pool.shutdown();
+        }
+        for (int w = 0; w < words.length; w++) {
+            words[w] = walls.get(w);
+        }
+
+        BitMazeGrid grid = new BitMazeGrid(rows, cols, words, -1, -1);
+        stitch(grid, rowSplits, colSplits, random);
+        grid.setStart(1 * cols + 1);
+        grid.setEnd((rows - 2) * cols + (cols - 2));
+        MazeGenerator.ensurePathToEnd(grid, grid.end());
+        return grid;
+    }
+
+    // region borders: region k covers rooms splits[k] .. splits[k + 1] - 1
+    private static int[] splits(int rooms, int parts) {
+        int[] splits = new int[parts + 1];
+        for (int k = 0; k <= parts; k++) {
+            splits[k] = (int) ((long) rooms * k / parts);
+        }
+        return splits;
+    }
+
+    /* STITCHING */
+
+    // opens one wall between each pair of regions joined by a random spanning tree of the regions
+    // (a random depth-first walk over the region grid, so the result stays loop-free)
+    private static void stitch(BitMazeGrid grid, int[] rowSplits, int[] colSplits, SplittableRandom random) {
+        int down = rowSplits.length - 1;
+        int across = colSplits.length - 1;
+        int cols = grid.cols();
+        boolean[] joined = new boolean[down * across];
+        int[] stack = new int[down * across];
+        int[] dirs = {0, 1, 2, 3};
+        int top = 0;
+        stack[top++] = 0;
+        joined[0] = true;
+
+        while (top > 0) {
+            int region = stack[top - 1];
+            int regionRow = region / across;
+            int regionCol = region % across;
+            // a neighbour that isn't joined yet, tried in random order
+            int next = -1;
+            int order = shuffledOrder(dirs, random);
+            for (int i = 0; i < 4 && next < 0; i++) {
+                int dir = (order >>> (i * 2)) & 3;
+                int nextRow = regionRow + MazeSolver.DIRECTIONS[dir][0];
+                int nextCol = regionCol + MazeSolver.DIRECTIONS[dir][1];
+                if (nextRow < 0 || nextRow >= down || nextCol < 0 || nextCol >= across) continue;
+                int candidate = nextRow * across + nextCol;
+                if (joined[candidate]) continue;
+                next = candidate;
+
+                if (nextRow == regionRow) {
+                    // side by side: open the wall column between them on a random room row
+                    int room = rowSplits[regionRow] + random.nextInt(rowSplits[regionRow + 1] - rowSplits[regionRow]);
+                    int wallCol = 2 * colSplits[Math.max(regionCol, nextCol)];
+                    grid.setWall((2 * room + 1) * cols + wallCol, false);
+                } else {
+                    // one above the other: open the wall row between them on a random room column
+                    int room = colSplits[regionCol] + random.nextInt(colSplits[regionCol + 1] - colSplits[regionCol]);
+                    int wallRow = 2 * rowSplits[Math.max(regionRow, nextRow)];
+                    grid.setWall(wallRow * cols + 2 * room + 1, false);
+                }
+            }
+            if (next < 0) {
+                top--; // every neighbour is joined: backtrack
+            } else {
+                joined[next] = true;
+                stack[top++] = next;
+            }
+        }
+    }
+
+    /* REGIONS */
+
+    // carves regions from .. to - 1; splits itself until it is one region
+    private static final class RegionTask extends RecursiveAction {
+        private final AtomicLongArray walls;
+        private final int cols;
+        private final int[] rowSplits;
+        private final int[] colSplits;
+        private final long[] seeds;
+        private final int from;
+        private final int to;
+
+        RegionTask(AtomicLongArray walls, int cols, int[] rowSplits, int[] colSplits, long[] seeds, int from, int to) {
+            this.walls = walls;
+            this.cols = cols;
+            this.rowSplits = rowSplits;
+            this.colSplits = colSplits;
+            this.seeds = seeds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RegionTask(walls, cols, rowSplits, colSplits, seeds, from, middle),
+                        new RegionTask(walls, cols, rowSplits, colSplits, seeds, middle, to));
+                return;
+            }
+            int across = colSplits.length - 1;
+            int regionRow = from / across;
+            int regionCol = from % across;
+            carve(rowSplits[regionRow], rowSplits[regionRow + 1], colSplits[regionCol], colSplits[regionCol + 1],
+                    new SplittableRandom(seeds[from]));
+        }
+
+        // recursive backtracker over rooms [firstRow, endRow) x [firstCol, endCol), starting at the
+        // region's top-left room; same explicit stack as MazeGenerator.carvePaths
+        private void carve(int firstRow, int endRow, int firstCol, int endCol, SplittableRandom random) {
+            int height = endRow - firstRow;
+            int width = endCol - firstCol;
+            long[] visited = new long[(height * width + 63) >>> 6]; // rooms of this region only
+            int[] rooms = new int[height * width];
+            int[] orders = new int[height * width]; // bits 0-7: direction order, bits 8-10: next index
+            int[] dirs = {0, 1, 2, 3};
+
+            int top = 0;
+            rooms[top] = 0;
+            orders[top++] = shuffledOrder(dirs, random);
+            visited[0] |= 1L;
+            open(2 * firstRow + 1, 2 * firstCol + 1);
+
+            while (top > 0) {
+                int frame = top - 1;
+                int state = orders[frame];
+                int next = state >>> 8;
+                if (next == 4) {
+                    top--; // all directions tried: backtrack
+                    continue;
+                }
+                orders[frame] = state + (1 << 8);
+
+                int dir = (state >>> (next * 2)) & 3;
+                int room = rooms[frame];
+                int row = room / width + MazeSolver.DIRECTIONS[dir][0];
+                int col = room % width + MazeSolver.DIRECTIONS[dir][1];
+                if (row < 0 || row >= height || col < 0 || col >= width) continue;
+                int newRoom = row * width + col;
+                if ((visited[newRoom >>> 6] & (1L << newRoom)) != 0) continue;
+
+                // open the wall in between and the new room, then continue from there
+                visited[newRoom >>> 6] |= 1L << newRoom;
+                int gridRow = 2 * (firstRow + row) + 1;
+                int gridCol = 2 * (firstCol + col) + 1;
+                open(gridRow - MazeSolver.DIRECTIONS[dir][0], gridCol - MazeSolver.DIRECTIONS[dir][1]);
+                open(gridRow, gridCol);
+                rooms[top] = newRoom;
+                orders[top++] = shuffledOrder(dirs, random);
+            }
+        }
+
+        // clears the wall bit; other regions may be changing other bits of the same word
+        private void open(int row, int col) {
+            int cell = row * cols + col;
+            int word = cell >>> 6;
+            long bit = 1L << cell;
+            long old;
+            do {
+                old = walls.get(word);
+            } while (!walls.compareAndSet(word, old, old & ~bit));
+        }
+    }
+
+    // shuffles the direction array in place (Fisher-Yates) and packs the order into 8 bits
+    private static int shuffledOrder(int[] dirs, SplittableRandom random) {
+        for (int i = 3; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = dirs[i];
+            dirs[i] = dirs[j];
+            dirs[j] = tmp;
+        }
+        return dirs[0] | dirs[1] << 2 | dirs[2] << 4 | dirs[3] << 6;
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* MULTI-QUERY PATH INDEX */
+// Answers many path queries on one maze between any two cells, not just S and E.
+// Built once: a BFS from the first open cell of every connected area records each cell's parent
+// and depth, which together form a spanning tree of the open cells. A query walks both cells up
+// that tree until they meet (the deeper one first), so it only touches the cells on the answer:
+// O(path length) per query instead of a whole-maze search.
+//
+// Generated mazes are perfect (exactly one path between two cells), so the tree path IS the
+// shortest path. Mazes with loops (e.g. loaded files) are detected while building (more open
+// edges than tree edges); for those every query runs a normal BFS instead, so answers are
+// always shortest paths. Tree queries can run on many threads at once; the BFS fallback is
+// one query at a time.
+public class PathIndex {
+    private final MazeGrid grid;
+    private final int cols;
+    private final int[] parent; // parent cell in the BFS tree, the cell itself for a root, -1 for walls
+    private final int[] depth;  // steps from the root of the cell's area
+    private final boolean perfect;
+    private final PrimitiveSolver fallback; // only for mazes with loops
+
+    public PathIndex(MazeGrid grid) {
+        this.grid = grid;
+        this.cols = grid.cols();
+        int rows = grid.rows();
+        int cells = grid.cellCount();
+        parent = new int[cells];
+        depth = new int[cells];
+        Arrays.fill(parent, -1);
+
+        // BFS forest: the parent array doubles as the visited set
+        int[] queue = new int[cells];
+        long openCells = 0;
+        long openEdges = 0; // pairs of neighbouring open cells
+        int areas = 0;
+        for (int root = 0; root < cells; root++) {
+            if (parent[root] >= 0 || !grid.isOpen(root)) continue;
+            areas++;
+            parent[root] = root;
+            depth[root] = 0;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            while (head < tail) {
+                int current = queue[head++];
+                openCells++;
+                int row = current / cols;
+                int col = current - row * cols;
+                // up, right, down, left; right and down also count each open edge once
+                if (row > 0) tail = visit(current, current - cols, queue, tail);
+                if (col + 1 < cols && grid.isOpen(current + 1)) {
+                    openEdges++;
+                    tail = visit(current, current + 1, queue, tail);
+                }
+                if (row + 1 < rows && grid.isOpen(current + cols)) {
+                    openEdges++;
+                    tail = visit(current, current + cols, queue, tail);
+                }
+                if (col > 0) tail = visit(current, current - 1, queue, tail);
+            }
+        }
+
+        // a forest has exactly (cells - trees) edges; any extra edge closes a loop
+        perfect = openEdges == openCells - areas;
+        fallback = perfect ? null : new PrimitiveSolver(true);
+    }
+
+    private int visit(int from, int next, int[] queue, int tail) {
+        if (parent[next] < 0 && grid.isOpen(next)) {
+            parent[next] = from;
+            depth[next] = depth[from] + 1;
+            queue[tail++] = next;
+        }
+        return tail;
+    }
+
+    // true if queries are answered from the tree (the maze has no loops)
+    public boolean isPerfect() {
+        return perfect;
+    }
+
+    /* QUERIES */
+
+    // steps between two cells, -1 if either is a wall or they are not connected
+    public int distance(int from, int to) {
+        if (parent[from] < 0 || parent[to] < 0) return -1;
+        if (!perfect) {
+            List<MazeSolver.Position> path = search(from, to);
+            return path == null ? -1 : path.size() - 1;
+        }
+        int meet = meetingCell(from, to);
+        return meet < 0 ? -1 : depth[from] + depth[to] - 2 * depth[meet];
+    }
+
+    public List<MazeSolver.Position> path(int fromRow, int fromCol, int toRow, int toCol) {
+        return path(fromRow * cols + fromCol, toRow * cols + toCol);
+    }
+
+    // path from one cell to another (both included, with parent links like a solver's result),
+    // null if either is a wall or they are not connected
+    public List<MazeSolver.Position> path(int from, int to) {
+        if (parent[from] < 0 || parent[to] < 0) return null;
+        if (!perfect) return search(from, to);
+        int meet = meetingCell(from, to);
+        if (meet < 0) return null;
+
+        // from .. meet comes straight off the tree; meet .. to is walked backwards
+        int length = depth[from] + depth[to] - 2 * depth[meet] + 1;
+        MazeSolver.Position[] steps = new MazeSolver.Position[length];
+        int i = 0;
+        for (int cell = from; cell != meet; cell = parent[cell]) {
+            steps[i++] = new MazeSolver.Position(cell / cols, cell % cols);
+        }
+        int j = length - 1;
+        for (int cell = to; cell != meet; cell = parent[cell]) {
+            steps[j--] = new MazeSolver.Position(cell / cols, cell % cols);
+        }
+        steps[i] = new MazeSolver.Position(meet / cols, meet % cols);
+        for (int k = 1; k < length; k++) {
+            steps[k].parent = steps[k - 1];
+        }
+        return new ArrayList<>(Arrays.asList(steps));
+    }
+
+    // lowest common ancestor of two open cells, -1 if they are in different areas
+    private int meetingCell(int a, int b) {
+        while (depth[a] > depth[b]) a = parent[a];
+        while (depth[b] > depth[a]) b = parent[b];
+        while (a != b) {
+            if (parent[a] == a) return -1; // both reached different roots
+            a = parent[a];
+            b = parent[b];
+        }
+        return a;
+    }
+
+    // BFS between two cells for mazes with loops
+    private synchronized List<MazeSolver.Position> search(int from, int to) {
+        return fallback.solve(new EndpointGrid(grid, from, to));
+    }
+
+    // the same maze with other start and end cells
+    private static final class EndpointGrid implements MazeGrid {
+        private final MazeGrid grid;
+        private final int start;
+        private final int end;
+
+        EndpointGrid(MazeGrid grid, int start, int end) {
+            this.grid = grid;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int rows() {
+            return grid.rows();
+        }
+
+        @Override
+        public int cols() {
+            return grid.cols();
+        }
+
+        @Override
+        public boolean isOpen(int cell) {
+            return grid.isOpen(cell);
+        }
+
+        @Override
+        public int start() {
+            return start;
+        }
+
+        @Override
+        public int end() {
+            return end;
+        }
+    }
+}
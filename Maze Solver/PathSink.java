@@ -0,0 +1,22 @@
+/* PATH SINK */
+// Receives a path one cell at a time, start first, as flat cell indices (row * cols + col).
+// GridSolver.solveInto streams the path into a sink instead of building a List<Position>, so a
+// path of millions of steps can be written out (RunLengthPath.Writer) or marked in a bitset
+// (marking) without one object per step.
+@FunctionalInterface
+public interface PathSink {
+    void cell(int cell);
+
+    // sends every cell to this sink, then to the next one
+    default PathSink andThen(PathSink next) {
+        return cell -> {
+            cell(cell);
+            next.cell(cell);
+        };
+    }
+
+    // sets the bit of every path cell in the bitset (one bit per cell, as in BitMazeGrid)
+    static PathSink marking(long[] cells) {
+        return cell -> cells[cell >>> 6] |= 1L << cell;
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.Arrays;
+import java.util.List;
+
+/* PRIMITIVE BFS/DFS ENGINE */
+// Searches the maze using flat cell indices (row * cols + col) instead of Position objects.
+// The frontier is an int[] used as a queue (BFS) or a stack (DFS), visited cells are kept
+// in a bitset and parent[] remembers which cell each cell was discovered from, so no objects
+// are created until the final path. The arrays are kept between solves and only grow when a
+// bigger maze comes in.
+public class PrimitiveSolver implements GridSolver {
+    private final boolean useQueue;      // mode used by solve(MazeGrid): true = BFS, false = DFS
+    private int[] frontier = new int[0]; // queue/stack of cell indices
+    private int[] parent = new int[0];   // parent[cell] = cell it was reached from (only valid once visited)
+    private long[] visited = new long[0]; // one bit per cell
+    private int visitedCount;            // cells marked visited during the last solve
+    private int expandedCount;           // cells taken off the frontier during the last solve
+    private int maxFrontier;
+    private long reconstructNanos;
+    private SearchEvents events;         // null unless a SearchListener is set
+
+    // BFS by default
+    public PrimitiveSolver() {
+        this(true);
+    }
+
+    public PrimitiveSolver(boolean useQueue) {
+        this.useQueue = useQueue;
+    }
+
+    @Override
+    public List<MazeSolver.Position> solve(MazeGrid grid) {
+        return solve(grid, useQueue);
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        events = SearchEvents.of(listener);
+    }
+
+    // BFS: same result as the old queue-based solver
+    public List<MazeSolver.Position> solveWithQueue(char[][] maze) {
+        return solve(new CharMazeGrid(maze), true);
+    }
+
+    // DFS: same result as the old stack-based solver
+    public List<MazeSolver.Position> solveWithStack(char[][] maze) {
+        return solve(new CharMazeGrid(maze), false);
+    }
+
+    public List<MazeSolver.Position> solveWithQueue(MazeGrid grid) {
+        return solve(grid, true);
+    }
+
+    public List<MazeSolver.Position> solveWithStack(MazeGrid grid) {
+        return solve(grid, false);
+    }
+
+    // number of cells visited by the last solve (including the start)
+    @Override
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    private List<MazeSolver.Position> solve(MazeGrid grid, boolean useQueue) {
+        List<MazeSolver.Position> path = search(grid, useQueue)
+                ? MazeSolver.reconstructPath(parent, grid.start(), grid.end(), grid.cols(), nanos -> reconstructNanos = nanos)
+                : null;
+        if (events != null) events.flush();
+        return path;
+    }
+
+    // streams the path of a BFS or DFS solve (the mode this solver was made with)
+    @Override
+    public int solveInto(MazeGrid grid, PathSink sink) {
+        int steps = search(grid, useQueue)
+                ? MazeSolver.streamPath(parent, grid.start(), grid.end(), sink, nanos -> reconstructNanos = nanos)
+                : -1;
+        if (events != null) events.flush();
+        return steps;
+    }
+
+    private boolean search(MazeGrid grid, boolean useQueue) {
+        expandedCount = 0;
+        visitedCount = 0;
+        maxFrontier = 0;
+        reconstructNanos = 0;
+        int start = grid.start();
+        int end = grid.end();
+        if (start < 0 || end < 0) {
+            return false; // invalid maze
+        }
+
+        int rows = grid.rows();
+        int cols = grid.cols();
+        int cells = rows * cols;
+        ensureCapacity(cells);
+        Arrays.fill(visited, 0, (cells + 63) >>> 6, 0L);
+
+        // every cell is added at most once, so a buffer of rows * cols never overflows
+        int head = 0; // next cell to take (queue only)
+        int tail = 0; // next free slot
+        frontier[tail++] = start;
+        markVisited(start, start);
+        maxFrontier = 1;
+
+        while (head < tail) {
+            int current = useQueue ? frontier[head++] : frontier[--tail];
+            if ((++expandedCount & (CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+            if (events != null) events.expanded(current);
+            if (current == end) {
+                return true;
+            }
+
+            int row = current / cols;
+            int col = current - row * cols;
+
+            // same order as MazeSolver.DIRECTIONS: up, right, down, left
+            if (row > 0) tail = visit(grid, current, current - cols, tail);
+            if (col + 1 < cols) tail = visit(grid, current, current + 1, tail);
+            if (row + 1 < rows) tail = visit(grid, current, current + cols, tail);
+            if (col > 0) tail = visit(grid, current, current - 1, tail);
+            if (tail - head > maxFrontier) maxFrontier = tail - head;
+        }
+
+        return false; // no path found
+    }
+
+    // marks the neighbour visited and adds it to the frontier if it can be entered
+    private int visit(MazeGrid grid, int from, int next, int tail) {
+        if ((visited[next >>> 6] & (1L << next)) == 0 && grid.isOpen(next)) {
+            markVisited(next, from);
+            frontier[tail++] = next;
+        }
+        return tail;
+    }
+
+    private void markVisited(int cell, int from) {
+        visited[cell >>> 6] |= 1L << cell;
+        parent[cell] = from;
+        visitedCount++;
+        if (events != null) events.frontier(cell);
+    }
+
+    @Override
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    @Override
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    // grows the scratch arrays only when the maze has more cells than last time
+    private void ensureCapacity(int cells) {
+        if (parent.length < cells) {
+            parent = new int[cells];
+            frontier = new int[cells];
+            visited = new long[(cells + 63) >>> 6];
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/* RUN-LENGTH PATHS */
+// A path written as the moves from the start instead of a list of cells: U, R, D or L (the
+// MazeSolver.DIRECTIONS order), each followed by how many times it repeats when that is more
+// than once. "R3D2L" is three steps right, two down and one left; the path of a maze whose start
+// is its end is "". Long corridors cost a few bytes instead of a Position per cell.
+public final class RunLengthPath {
+    static final byte[] LETTERS = {'U', 'R', 'D', 'L'};
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private RunLengthPath() {
+    }
+
+    // encodes a path list (e.g. from GridSolver.solve)
+    public static String encode(List<MazeSolver.Position> path) {
+        StringBuilder out = new StringBuilder();
+        int direction = -1;
+        int run = 0;
+        for (int i = 1; i < path.size(); i++) {
+            MazeSolver.Position from = path.get(i - 1);
+            MazeSolver.Position to = path.get(i);
+            int next = direction(to.row - from.row, to.col - from.col);
+            if (next == direction) {
+                run++;
+                continue;
+            }
+            appendRun(out, direction, run);
+            direction = next;
+            run = 1;
+        }
+        appendRun(out, direction, run);
+        return out.toString();
+    }
+
+    private static void appendRun(StringBuilder out, int direction, int run) {
+        if (run == 0) return;
+        out.append((char) LETTERS[direction]);
+        if (run > 1) out.append(run);
+    }
+
+    // the cells of an encoded path starting at (startRow, startCol), linked through their parents
+    public static List<MazeSolver.Position> decode(CharSequence moves, int startRow, int startCol) {
+        List<MazeSolver.Position> path = new ArrayList<>();
+        MazeSolver.Position current = new MazeSolver.Position(startRow, startCol);
+        path.add(current);
+        int i = 0;
+        while (i < moves.length()) {
+            int direction = letterIndex(moves.charAt(i++));
+            if (direction < 0) {
+                throw new IllegalArgumentException("bad move '" + moves.charAt(i - 1) + "' at " + (i - 1));
+            }
+            int run = 0;
+            while (i < moves.length() && moves.charAt(i) >= '0' && moves.charAt(i) <= '9') {
+                run = Math.addExact(Math.multiplyExact(run, 10), moves.charAt(i++) - '0');
+            }
+            if (run == 0) run = 1;
+            for (int step = 0; step < run; step++) {
+                MazeSolver.Position next = new MazeSolver.Position(current.row + MazeSolver.DIRECTIONS[direction][0],
+                        current.col + MazeSolver.DIRECTIONS[direction][1]);
+                next.parent = current;
+                path.add(next);
+                current = next;
+            }
+        }
+        return path;
+    }
+
+    private static int letterIndex(char c) {
+        for (int d = 0; d < LETTERS.length; d++) {
+            if (LETTERS[d] == c) return d;
+        }
+        return -1;
+    }
+
+    // index into MazeSolver.DIRECTIONS of a one-cell move
+    private static int direction(int rowStep, int colStep) {
+        for (int d = 0; d < 4; d++) {
+            if (MazeSolver.DIRECTIONS[d][0] == rowStep && MazeSolver.DIRECTIONS[d][1] == colStep) return d;
+        }
+        throw new IllegalArgumentException("path cells (" + rowStep + ", " + colStep + ") apart are not neighbours");
+    }
+
+    /* STREAMING */
+
+    // Encodes a streamed path straight into a channel through one 64 KB buffer, so nothing grows
+    // with the path length. Call finish() after the solve to write the last run and flush;
+    // write errors come out of cell()/finish() as UncheckedIOException.
+    public static final class Writer implements PathSink {
+        private final int cols;
+        private final WritableByteChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private final byte[] digits = new byte[10];
+        private int previous = -1;
+        private int direction = -1;
+        private int run;
+        private long steps;
+
+        public Writer(int cols, WritableByteChannel out) {
+            this.cols = cols;
+            this.out = out;
+        }
+
+        @Override
+        public void cell(int cell) {
+            if (previous >= 0) {
+                int next = step(previous, cell);
+                if (next == direction) {
+                    run++;
+                } else {
+                    writeRun();
+                    direction = next;
+                    run = 1;
+                }
+                steps++;
+            }
+            previous = cell;
+        }
+
+        private int step(int from, int to) {
+            if (to == from - cols) return 0;
+            if (to == from + 1 && to % cols != 0) return 1;
+            if (to == from + cols) return 2;
+            if (to == from - 1 && from % cols != 0) return 3;
+            throw new IllegalArgumentException("path cells " + from + " and " + to + " are not neighbours");
+        }
+
+        private void writeRun() {
+            if (run == 0) return;
+            if (buffer.remaining() < 1 + digits.length) drain();
+            buffer.put(LETTERS[direction]);
+            if (run > 1) {
+                int n = 0;
+                for (int value = run; value > 0; value /= 10) {
+                    digits[n++] = (byte) ('0' + value % 10);
+                }
+                while (n > 0) buffer.put(digits[--n]);
+            }
+            run = 0;
+        }
+
+        // writes the last run and everything still buffered; the channel is left open
+        public void finish() {
+            writeRun();
+            drain();
+        }
+
+        // steps streamed so far
+        public long getSteps() {
+            return steps;
+        }
+
+        private void drain() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not write path", e);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/* SEARCH EVENT BATCHING */
+// Collects the cells a solver adds to and takes off its frontier and hands them to a
+// SearchListener BATCH cells at a time. Solvers keep a null SearchEvents when nobody is
+// listening, so a normal solve only pays for one null check per cell.
+final class SearchEvents {
+    static final int BATCH = 4096;
+
+    private final SearchListener listener;
+    private final int[] frontier = new int[BATCH];
+    private final int[] expanded = new int[BATCH];
+    private int frontierCount;
+    private int expandedCount;
+
+    private SearchEvents(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // null when there is no listener
+    static SearchEvents of(SearchListener listener) {
+        return listener == null ? null : new SearchEvents(listener);
+    }
+
+    void frontier(int cell) {
+        frontier[frontierCount++] = cell;
+        if (frontierCount == BATCH) flushFrontier();
+    }
+
+    void expanded(int cell) {
+        expanded[expandedCount++] = cell;
+        if (expandedCount == BATCH) flushExpanded();
+    }
+
+    // sends everything still waiting; called once at the end of every solve
+    void flush() {
+        flushExpanded();
+    }
+
+    private void flushFrontier() {
+        if (frontierCount > 0) {
+            listener.frontierAdded(frontier, frontierCount);
+            frontierCount = 0;
+        }
+    }
+
+    private void flushExpanded() {
+        // a cell is always added before it is expanded, so the frontier batch goes first
+        flushFrontier();
+        if (expandedCount > 0) {
+            listener.cellsExpanded(expanded, expandedCount);
+            expandedCount = 0;
+        }
+    }
+}
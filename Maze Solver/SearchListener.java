@@ -0,0 +1,12 @@
+/* SEARCH LISTENER */
+// Lets the GUI (or anything else) watch a solver at work. A solver reports cells in batches
+// (see SearchEvents) on the thread that runs the search, so a listener is called once per few
+// thousand cells instead of once per cell. The array is reused after the call returns: copy
+// what you need and don't keep a reference to it.
+public interface SearchListener {
+    // cells just added to the frontier (marked visited), in the order they were added
+    void frontierAdded(int[] cells, int count);
+
+    // cells just taken off the frontier and expanded
+    void cellsExpanded(int[] cells, int count);
+}
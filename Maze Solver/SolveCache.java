@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/* SOLVE RESULT CACHE */
+// Remembers solved paths so the same maze isn't searched again (the GUI re-solving after every
+// click, batch jobs replaying the same seeds). Entries are keyed by a 64-bit hash of the wall
+// bits (and cell costs on weighted mazes) plus the size, start, end and algorithm, and kept in
+// least-recently-used order until their total size goes over maxBytes.
+//
+// A path is stored as one 2-bit direction per step (MazeSolver.DIRECTIONS order: up, right,
+// down, left), four steps per byte, so a 10 000 step path takes 2.5 KB instead of 10 000
+// Position objects. "No path" results are cached too. All methods are thread-safe.
+public final class SolveCache {
+    public static final long DEFAULT_MAX_BYTES = 64L << 20; // 64 MB of encoded paths
+    private static final int ENTRY_OVERHEAD = 96;          // rough bytes per entry besides the path
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, CachedPath> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SolveCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /* LOOKUP */
+
+    // cached path for the grid, or solves it with a new solver for the algorithm and caches the result
+    public List<MazeSolver.Position> solve(MazeGrid grid, Algorithm algorithm) {
+        Key key = keyOf(grid, algorithm);
+        CachedPath cached = get(key);
+        if (cached != null) {
+            return cached.toPositions();
+        }
+        List<MazeSolver.Position> path = algorithm.newSolver().solve(grid);
+        put(key, path);
+        return path;
+    }
+
+    // null on a miss (a cached "no path" result is a CachedPath that isn't solved)
+    public synchronized CachedPath get(Key key) {
+        CachedPath cached = entries.get(key);
+        if (cached == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return cached;
+    }
+
+    // path may be null (no path); oldest entries are dropped until the cache fits again
+    public synchronized void put(Key key, List<MazeSolver.Position> path) {
+        CachedPath value = CachedPath.encode(path);
+        long size = ENTRY_OVERHEAD + value.sizeInBytes();
+        if (size > maxBytes) {
+            return; // would push out everything else
+        }
+        CachedPath old = entries.put(key, value);
+        if (old != null) {
+            bytes -= ENTRY_OVERHEAD + old.sizeInBytes();
+        }
+        bytes += size;
+
+        Iterator<Map.Entry<Key, CachedPath>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Key, CachedPath> entry = eldest.next();
+            bytes -= ENTRY_OVERHEAD + entry.getValue().sizeInBytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /* STATISTICS */
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // estimated bytes held by the cached paths
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format(Locale.ROOT, "%d hits, %d misses (%.0f%% hit rate), %d entries, %d KB, %d evicted",
+                hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, entries.size(), bytes / 1024, evictions);
+    }
+
+    /* KEYS */
+
+    public static Key keyOf(MazeGrid grid, Algorithm algorithm) {
+        return new Key(contentHash(grid), grid.rows(), grid.cols(), grid.start(), grid.end(), algorithm);
+    }
+
+    // 64-bit hash of the wall bits, one multiply-xorshift round per 64 cells; weighted mazes
+    // also mix in the cost of every open cell, 16 cells (4 bits each) per round
+    public static long contentHash(MazeGrid grid) {
+        int words = (grid.cellCount() + 63) >>> 6;
+        long hash = 0x9E3779B97F4A7C15L ^ words;
+        for (int w = 0; w < words; w++) {
+            hash = mix(hash, grid.wallWord(w));
+        }
+        if (grid.isWeighted()) {
+            long packed = 0;
+            for (int cell = 0; cell < grid.cellCount(); cell++) {
+                int cost = grid.isOpen(cell) ? grid.cost(cell) : 0;
+                packed = packed << 4 | cost;
+                if ((cell & 15) == 15) {
+                    hash = mix(hash, packed);
+                    packed = 0;
+                }
+            }
+            hash = mix(hash, packed);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 31);
+    }
+
+    public static final class Key {
+        private final long contentHash;
+        private final int rows;
+        private final int cols;
+        private final int start;
+        private final int end;
+        private final Algorithm algorithm;
+
+        Key(long contentHash, int rows, int cols, int start, int end, Algorithm algorithm) {
+            this.contentHash = contentHash;
+            this.rows = rows;
+            this.cols = cols;
+            this.start = start;
+            this.end = end;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key key = (Key) obj;
+            return contentHash == key.contentHash && rows == key.rows && cols == key.cols
+                    && start == key.start && end == key.end && algorithm == key.algorithm;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(contentHash, rows, cols, start, end, algorithm);
+        }
+    }
+
+    /* ENCODED PATHS */
+
+    public static final class CachedPath {
+        private final int startRow;
+        private final int startCol;
+        private final int steps;      // -1 = no path
+        private final byte[] moves;   // 2 bits per step, first step in the lowest bits of moves[0]
+
+        private CachedPath(int startRow, int startCol, int steps, byte[] moves) {
+            this.startRow = startRow;
+            this.startCol = startCol;
+            this.steps = steps;
+            this.moves = moves;
+        }
+
+        static CachedPath encode(List<MazeSolver.Position> path) {
+            if (path == null) {
+                return new CachedPath(-1, -1, -1, new byte[0]);
+            }
+            int steps = path.size() - 1;
+            byte[] moves = new byte[(steps + 3) >>> 2];
+            MazeSolver.Position previous = path.get(0);
+            for (int i = 1; i <= steps; i++) {
+                MazeSolver.Position next = path.get(i);
+                moves[(i - 1) >>> 2] |= (byte) (direction(next.row - previous.row, next.col - previous.col) << (((i - 1) & 3) << 1));
+                previous = next;
+            }
+            return new CachedPath(path.get(0).row, path.get(0).col, steps, moves);
+        }
+
+        // index into MazeSolver.DIRECTIONS of a one-cell move
+        private static int direction(int rowStep, int colStep) {
+            for (int d = 0; d < MazeSolver.DIRECTIONS.length; d++) {
+                if (MazeSolver.DIRECTIONS[d][0] == rowStep && MazeSolver.DIRECTIONS[d][1] == colStep) {
+                    return d;
+                }
+            }
+            throw new IllegalArgumentException("path cells are not neighbours");
+        }
+
+        public boolean isSolved() {
+            return steps >= 0;
+        }
+
+        // path length in steps, -1 if there is no path
+        public int getSteps() {
+            return steps;
+        }
+
+        public int sizeInBytes() {
+            return moves.length;
+        }
+
+        // decodes the path (with parent links, like a solver's result); null if there is no path
+        public List<MazeSolver.Position> toPositions() {
+            if (steps < 0) {
+                return null;
+            }
+            List<MazeSolver.Position> path = new ArrayList<>(steps + 1);
+            MazeSolver.Position current = new MazeSolver.Position(startRow, startCol);
+            path.add(current);
+            for (int i = 0; i < steps; i++) {
+                int d = (moves[i >>> 2] >>> ((i & 3) << 1)) & 3;
+                current = new MazeSolver.Position(current.row + MazeSolver.DIRECTIONS[d][0],
+                        current.col + MazeSolver.DIRECTIONS[d][1], current);
+                path.add(current);
+            }
+            return path;
+        }
+    }
+}
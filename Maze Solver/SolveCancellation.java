@@ -0,0 +1,34 @@
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/* CANCELLATION WITHOUT INTERRUPTS */
+// A thread that runs many solves one after another (MazeServer's workers) can't be interrupted to
+// stop just one of them, so a solve can also be run with a condition: GridSolver.checkCancelled
+// polls it along with the interrupt flag and stops the solve once it returns true.
+final class SolveCancellation {
+    private static final ThreadLocal<BooleanSupplier> CONDITION = new ThreadLocal<>();
+
+    private SolveCancellation() {
+    }
+
+    // runs the solve on this thread, cancelled (CancellationException) as soon as cancelled says so
+    static <T> T run(BooleanSupplier cancelled, Supplier<T> solve) {
+        BooleanSupplier outer = CONDITION.get();
+        CONDITION.set(cancelled);
+        try {
+            return solve.get();
+        } finally {
+            if (outer == null) {
+                CONDITION.remove();
+            } else {
+                CONDITION.set(outer);
+            }
+        }
+    }
+
+    // true if the solve running on this thread should stop
+    static boolean isRequested() {
+        BooleanSupplier cancelled = CONDITION.get();
+        return cancelled != null && cancelled.getAsBoolean();
+    }
+}
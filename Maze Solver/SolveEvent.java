@@ -0,0 +1,65 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/* JFR EVENT */
+// Emitted for every measured solve, so solves can be profiled in production with Flight Recorder
+// (java -XX:StartFlightRecording ...) without attaching a profiler. Costs almost nothing when
+// recording is off.
+@Name("mazesolver.Solve")
+@Label("Maze Solve")
+@Category("Maze Solver")
+@Description("One maze solve with its search statistics")
+class SolveEvent extends Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Columns")
+    int cols;
+
+    @Label("Path Length")
+    int pathLength;
+
+    @Label("Cells Expanded")
+    int cellsExpanded;
+
+    @Label("Cells Visited")
+    int cellsVisited;
+
+    @Label("Max Frontier")
+    int maxFrontier;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long searchNanos;
+
+    @Label("Path Reconstruction Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long reconstructNanos;
+
+    void record(SolverMetrics metrics, MazeGrid grid) {
+        if (!shouldCommit()) return;
+        algorithm = metrics.getAlgorithm();
+        rows = grid.rows();
+        cols = grid.cols();
+        pathLength = metrics.getPathLength();
+        cellsExpanded = metrics.getCellsExpanded();
+        cellsVisited = metrics.getCellsVisited();
+        maxFrontier = metrics.getMaxFrontier();
+        allocatedBytes = metrics.getAllocatedBytes();
+        searchNanos = metrics.getSearchNanos();
+        reconstructNanos = metrics.getReconstructNanos();
+        commit();
+    }
+}
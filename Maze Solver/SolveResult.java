@@ -0,0 +1,25 @@
+import java.util.List;
+
+/* SOLVE RESULT */
+// The path found by a solver together with what it cost (see SolverMetrics).
+public final class SolveResult {
+    private final List<MazeSolver.Position> path; // null if there is no path
+    private final SolverMetrics metrics;
+
+    public SolveResult(List<MazeSolver.Position> path, SolverMetrics metrics) {
+        this.path = path;
+        this.metrics = metrics;
+    }
+
+    public List<MazeSolver.Position> getPath() {
+        return path;
+    }
+
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isSolved() {
+        return path != null;
+    }
+}
@@ -0,0 +1,140 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntSupplier;
+
+/* SOLVER METRICS */
+// What one solve cost, measured around the solver rather than with Runtime free memory
+// (which goes negative or shows 0 KB whenever a GC runs in between):
+//   - cells expanded / visited and the largest frontier, counted by the solver itself
+//   - bytes allocated by the solving thread (ThreadMXBean), -1 if the JVM can't tell
+//   - nanoseconds spent searching and spent rebuilding the path
+// Allocation is per thread, so work done by other threads (e.g. ParallelBfsSolver's pool) isn't included.
+public final class SolverMetrics {
+    private final String algorithm;
+    private final int pathLength; // steps, -1 if no path
+    private final int cellsExpanded;
+    private final int cellsVisited;
+    private final int maxFrontier;
+    private final long allocatedBytes;
+    private final long searchNanos;
+    private final long reconstructNanos;
+
+    public SolverMetrics(String algorithm, int pathLength, int cellsExpanded, int cellsVisited, int maxFrontier,
+                         long allocatedBytes, long searchNanos, long reconstructNanos) {
+        this.algorithm = algorithm;
+        this.pathLength = pathLength;
+        this.cellsExpanded = cellsExpanded;
+        this.cellsVisited = cellsVisited;
+        this.maxFrontier = maxFrontier;
+        this.allocatedBytes = allocatedBytes;
+        this.searchNanos = searchNanos;
+        this.reconstructNanos = reconstructNanos;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    public int getCellsExpanded() {
+        return cellsExpanded;
+    }
+
+    public int getCellsVisited() {
+        return cellsVisited;
+    }
+
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    public long getReconstructNanos() {
+        return reconstructNanos;
+    }
+
+    public long getTotalNanos() {
+        return searchNanos + reconstructNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s: path %d, expanded %d, visited %d, max frontier %d, allocated %d B, search %.3f ms, path %.3f ms",
+                algorithm, pathLength, cellsExpanded, cellsVisited, maxFrontier, allocatedBytes,
+                searchNanos / 1_000_000.0, reconstructNanos / 1_000_000.0);
+    }
+
+    /* MEASURING */
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATION_SUPPORTED = initAllocationCounting();
+
+    private static boolean initAllocationCounting() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) return false;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (!threads.isThreadAllocatedMemorySupported()) return false;
+        if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+        return true;
+    }
+
+    // total bytes the current thread has allocated so far, -1 if the JVM doesn't support it
+    public static long currentThreadAllocatedBytes() {
+        if (!ALLOCATION_SUPPORTED) return -1;
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // runs one solve and collects its metrics; also emits a JFR event when recording is on
+    static SolveResult measure(Algorithm algorithm, GridSolver solver, MazeGrid grid) {
+        class ListSolve implements IntSupplier {
+            List<MazeSolver.Position> path;
+
+            @Override
+            public int getAsInt() {
+                path = solver.solve(grid);
+                return path == null ? -1 : path.size() - 1;
+            }
+        }
+        ListSolve solve = new ListSolve();
+        SolverMetrics metrics = measure(algorithm, solver, grid, solve);
+        return new SolveResult(solve.path, metrics);
+    }
+
+    // the same for a solve that streams its path into the sink
+    static SolverMetrics measure(Algorithm algorithm, GridSolver solver, MazeGrid grid, PathSink sink) {
+        return measure(algorithm, solver, grid, () -> solver.solveInto(grid, sink));
+    }
+
+    private static SolverMetrics measure(Algorithm algorithm, GridSolver solver, MazeGrid grid, IntSupplier solve) {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long startBytes = currentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+
+        int pathLength = solve.getAsInt();
+
+        long totalNanos = System.nanoTime() - startTime;
+        long endBytes = currentThreadAllocatedBytes();
+        event.end();
+
+        long reconstructNanos = Math.min(solver.getReconstructNanos(), totalNanos);
+        SolverMetrics metrics = new SolverMetrics(algorithm.name(), pathLength,
+                solver.getExpandedCount(), solver.getVisitedCount(), solver.getMaxFrontier(),
+                startBytes < 0 ? -1 : endBytes - startBytes,
+                totalNanos - reconstructNanos, reconstructNanos);
+        event.record(metrics, grid);
+        return metrics;
+    }
+}
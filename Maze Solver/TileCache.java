@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/* LRU TILE CACHE */
+// Pages fixed-size tiles of a file in and out of the heap. Tile t is the (tileWords * 8) bytes at
+// base + t * tileWords * 8, read as little-endian longs. At most maxTiles tiles are held, in
+// least-recently-used order; a tile that was fetched for writing is written back to the file when
+// it is evicted (or on flush). Reading past the end of the file gives zeros, so a new sparse
+// scratch file needs no initialising.
+//
+// A caller may keep using the array of the tile it touched last while it touches up to four
+// other tiles (a cell and its neighbours), so the cache never holds fewer than 8 tiles.
+// Not thread-safe: one cache per solve.
+public final class TileCache {
+    private static final int MIN_TILES = 8;
+
+    private final FileChannel channel;
+    private final long base;
+    private final int tileWords;
+    private final int maxTiles;
+    private final ByteBuffer buffer; // one tile, reused for every read and write
+    private final LinkedHashMap<Integer, Tile> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private int lastTile = -1;       // last tile fetched, skips the map for runs on one tile
+    private Tile last;
+    private long hits;
+    private long misses;
+    private long writes;
+
+    private static final class Tile {
+        final long[] words;
+        boolean dirty;
+
+        Tile(long[] words) {
+            this.words = words;
+        }
+    }
+
+    // maxBytes is rounded down to whole tiles (at least 8)
+    public TileCache(FileChannel channel, long base, int tileWords, long maxBytes) {
+        this.channel = channel;
+        this.base = base;
+        this.tileWords = tileWords;
+        this.maxTiles = (int) Math.max(MIN_TILES, Math.min(Integer.MAX_VALUE, maxBytes / (8L * tileWords)));
+        this.buffer = ByteBuffer.allocateDirect(8 * tileWords).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /* ACCESS */
+
+    // the tile's words, read from the file if it isn't held
+    public long[] get(int tile) {
+        return fetch(tile).words;
+    }
+
+    // the same, and the tile is written back before it is dropped
+    public long[] getForWrite(int tile) {
+        Tile held = fetch(tile);
+        held.dirty = true;
+        return held.words;
+    }
+
+    private Tile fetch(int tile) {
+        if (tile == lastTile) {
+            hits++;
+            return last;
+        }
+        Tile held = tiles.get(tile);
+        if (held != null) {
+            hits++;
+        } else {
+            misses++;
+            held = new Tile(evictIfFull());
+            read(tile, held.words);
+            tiles.put(tile, held);
+        }
+        lastTile = tile;
+        last = held;
+        return held;
+    }
+
+    // drops the least recently used tile when the cache is full and hands back its array for reuse
+    private long[] evictIfFull() {
+        if (tiles.size() < maxTiles) {
+            return new long[tileWords];
+        }
+        Iterator<Map.Entry<Integer, Tile>> eldest = tiles.entrySet().iterator();
+        Map.Entry<Integer, Tile> entry = eldest.next();
+        if (entry.getValue().dirty) {
+            write(entry.getKey(), entry.getValue().words);
+        }
+        eldest.remove();
+        if (entry.getKey() == lastTile) {
+            lastTile = -1;
+            last = null;
+        }
+        return entry.getValue().words;
+    }
+
+    // writes every changed tile back to the file (the tiles stay cached)
+    public void flush() {
+        for (Map.Entry<Integer, Tile> entry : tiles.entrySet()) {
+            if (entry.getValue().dirty) {
+                write(entry.getKey(), entry.getValue().words);
+                entry.getValue().dirty = false;
+            }
+        }
+    }
+
+    /* FILE I/O */
+
+    private void read(int tile, long[] words) {
+        buffer.clear();
+        try {
+            long position = base + (long) tile * tileWords * 8;
+            while (buffer.hasRemaining()) {
+                int n = channel.read(buffer, position + buffer.position());
+                if (n < 0) break; // past the end of a sparse file: the rest is zero
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read tile " + tile, e);
+        }
+        int bytes = buffer.position();
+        buffer.flip();
+        int full = bytes >>> 3;
+        buffer.asLongBuffer().get(words, 0, full);
+        if ((bytes & 7) != 0) {
+            long word = 0; // the file ends inside this word
+            for (int i = 0; i < (bytes & 7); i++) {
+                word |= (buffer.get(8 * full + i) & 0xFFL) << (8 * i);
+            }
+            words[full++] = word;
+        }
+        Arrays.fill(words, full, tileWords, 0L);
+    }
+
+    private void write(int tile, long[] words) {
+        buffer.clear();
+        buffer.asLongBuffer().put(words);
+        try {
+            long position = base + (long) tile * tileWords * 8;
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not write tile " + tile, e);
+        }
+        writes++;
+    }
+
+    /* STATISTICS */
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    // tiles written back to the file
+    public long getWrites() {
+        return writes;
+    }
+
+    public int getMaxTiles() {
+        return maxTiles;
+    }
+
+    @Override
+    public String toString() {
+        long lookups = hits + misses;
+        return String.format(Locale.ROOT, "%d hits, %d misses (%.2f%% hit rate), %d written back, %d of %d tiles held",
+                hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, writes, tiles.size(), maxTiles);
+    }
+}
@@ -0,0 +1,268 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/* TILED MAZE FILES */
+// A maze stored on disk in square tiles that are paged in through a TileCache, for mazes that
+// don't fit on the heap (or in an int cell index: 100 000 x 100 000 is 10^10 cells). Cells are
+// addressed by row and column; solvers work tile by tile (see TiledSolver).
+//
+// File layout (.tiles), all numbers little-endian:
+//   bytes 0-3    magic "MAZT"
+//   bytes 4-7    format version (1)
+//   bytes 8-19   rows, cols, tile size (int each)
+//   bytes 20-35  start row, start col, end row, end col (int each, -1 = none)
+//   bytes 36-63  unused
+//   bytes 64-    tiles in row-major tile order, each (tile size)^2 bits, 64 cells per long,
+//                cells row-major inside the tile
+// Unlike the .maze format a set bit is an OPEN cell, so untouched space in a new (sparse) file
+// reads as walls, and so do the cells of the edge tiles that lie outside the maze.
+public class TiledMazeGrid implements AutoCloseable {
+    public static final int MAGIC = 0x545A414D; // "MAZT" read as a little-endian int
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 64;
+    public static final int DEFAULT_TILE_SIZE = 1024; // 128 KB of wall bits per tile
+    public static final long DEFAULT_CACHE_BYTES = 256L << 20;
+
+    private final FileChannel channel;
+    private final TileCache tiles;
+    private final int rows;
+    private final int cols;
+    private final int tileSize;
+    private final int tilesAcross;
+    private final int tilesDown;
+    private int startRow = -1;
+    private int startCol = -1;
+    private int endRow = -1;
+    private int endCol = -1;
+
+    private TiledMazeGrid(FileChannel channel, int rows, int cols, int tileSize, long cacheBytes) {
+        this.channel = channel;
+        this.rows = rows;
+        this.cols = cols;
+        this.tileSize = tileSize;
+        this.tilesAcross = (cols + tileSize - 1) / tileSize;
+        this.tilesDown = (rows + tileSize - 1) / tileSize;
+        this.tiles = new TileCache(channel, HEADER_BYTES, tileWords(tileSize), cacheBytes);
+    }
+
+    // a new maze file where every cell is a wall (the file stays sparse until tiles are written)
+    public static TiledMazeGrid create(Path file, int rows, int cols, int tileSize, long cacheBytes) throws IOException {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("maze must have at least one row and column");
+        }
+        if (tileSize < 64 || tileSize % 64 != 0 || tileSize > 8192) {
+            throw new IllegalArgumentException("tile size must be a multiple of 64 up to 8192");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SPARSE);
+        TiledMazeGrid grid = new TiledMazeGrid(channel, rows, cols, tileSize, cacheBytes);
+        grid.writeHeader();
+        return grid;
+    }
+
+    // opens an existing maze file for reading and writing
+    public static TiledMazeGrid open(Path file, long cacheBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+            if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException(file + ": not a tiled maze file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + ": unsupported tiled maze version " + header.getInt(4));
+            }
+            int rows = header.getInt(8);
+            int cols = header.getInt(12);
+            int tileSize = header.getInt(16);
+            if (rows <= 0 || cols <= 0 || tileSize < 64 || tileSize % 64 != 0 || tileSize > 8192) {
+                throw new IOException(file + ": bad tiled maze header (" + rows + " x " + cols + ", tile " + tileSize + ")");
+            }
+            TiledMazeGrid grid = new TiledMazeGrid(channel, rows, cols, tileSize, cacheBytes);
+            grid.startRow = header.getInt(20);
+            grid.startCol = header.getInt(24);
+            grid.endRow = header.getInt(28);
+            grid.endCol = header.getInt(32);
+            return grid;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // copies any in-memory grid into a new tiled file
+    public static void write(MazeGrid grid, Path file, int tileSize) throws IOException {
+        try (TiledMazeGrid tiled = create(file, grid.rows(), grid.cols(), tileSize, DEFAULT_CACHE_BYTES)) {
+            int cols = grid.cols();
+            // tile by tile, so each tile is filled while it is cached
+            for (int tileRow = 0; tileRow < tiled.tilesDown; tileRow++) {
+                for (int tileCol = 0; tileCol < tiled.tilesAcross; tileCol++) {
+                    int tile = tileRow * tiled.tilesAcross + tileCol;
+                    long[] words = null;
+                    int rowEnd = Math.min(grid.rows(), (tileRow + 1) * tileSize);
+                    int colEnd = Math.min(cols, (tileCol + 1) * tileSize);
+                    for (int row = tileRow * tileSize; row < rowEnd; row++) {
+                        for (int col = tileCol * tileSize; col < colEnd; col++) {
+                            if (!grid.isOpen(row * cols + col)) continue;
+                            if (words == null) words = tiled.tiles.getForWrite(tile); // all-wall tiles stay sparse
+                            int offset = (row % tileSize) * tileSize + col % tileSize;
+                            words[offset >>> 6] |= 1L << offset;
+                        }
+                    }
+                }
+            }
+            if (grid.start() >= 0) tiled.setStart(grid.start() / cols, grid.start() % cols);
+            if (grid.end() >= 0) tiled.setEnd(grid.end() / cols, grid.end() % cols);
+        }
+    }
+
+    // bits for one tile, as longs
+    static int tileWords(int tileSize) {
+        return tileSize * tileSize / 64;
+    }
+
+    /* SIZE AND ENDPOINTS */
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public long cellCount() {
+        return (long) rows * cols;
+    }
+
+    public int tileSize() {
+        return tileSize;
+    }
+
+    // tiles per row of tiles
+    public int tilesAcross() {
+        return tilesAcross;
+    }
+
+    public int tilesDown() {
+        return tilesDown;
+    }
+
+    public int startRow() {
+        return startRow;
+    }
+
+    public int startCol() {
+        return startCol;
+    }
+
+    public int endRow() {
+        return endRow;
+    }
+
+    public int endCol() {
+        return endCol;
+    }
+
+    public void setStart(int row, int col) throws IOException {
+        checkCell(row, col);
+        startRow = row;
+        startCol = col;
+        writeHeader();
+    }
+
+    public void setEnd(int row, int col) throws IOException {
+        checkCell(row, col);
+        endRow = row;
+        endCol = col;
+        writeHeader();
+    }
+
+    /* CELLS */
+
+    // one cell through the tile cache; solvers should fetch whole tiles instead
+    public boolean isOpen(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return false;
+        int offset = (row % tileSize) * tileSize + col % tileSize;
+        return (tiles.get(tileOf(row, col))[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    public void setOpen(int row, int col, boolean open) {
+        checkCell(row, col);
+        int offset = (row % tileSize) * tileSize + col % tileSize;
+        long[] words = tiles.getForWrite(tileOf(row, col));
+        if (open) {
+            words[offset >>> 6] |= 1L << offset;
+        } else {
+            words[offset >>> 6] &= ~(1L << offset);
+        }
+    }
+
+    // replaces a whole row with the open bits of row-wise words (bit (col % 64) of open[col / 64]);
+    // rows written in order fill one band of tiles at a time
+    public void setRow(int row, long[] open) {
+        checkCell(row, 0);
+        int tileRowWords = tileSize >>> 6;
+        int rowWords = (cols + 63) >>> 6;
+        int offset = (row % tileSize) * tileRowWords;
+        for (int tileCol = 0; tileCol < tilesAcross; tileCol++) {
+            int first = tileCol * tileRowWords;
+            int count = Math.min(tileRowWords, rowWords - first);
+            long[] words = tiles.getForWrite((row / tileSize) * tilesAcross + tileCol);
+            System.arraycopy(open, first, words, offset, count);
+            Arrays.fill(words, offset + count, offset + tileRowWords, 0L); // past the last column
+        }
+    }
+
+    public int tileOf(int row, int col) {
+        return (row / tileSize) * tilesAcross + col / tileSize;
+    }
+
+    // the open bits of a tile; bit (r * tileSize + c) is cell (r, c) of the tile
+    long[] tile(int tile) {
+        return tiles.get(tile);
+    }
+
+    public TileCache cache() {
+        return tiles;
+    }
+
+    private void checkCell(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IllegalArgumentException("cell (" + row + ", " + col + ") is outside the maze");
+        }
+    }
+
+    /* FILE */
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(tileSize)
+                .putInt(startRow).putInt(startCol).putInt(endRow).putInt(endCol);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    // writes changed tiles back to the file
+    public void flush() {
+        tiles.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            tiles.flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
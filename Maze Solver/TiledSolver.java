@@ -0,0 +1,336 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/* BFS OVER A TILED MAZE */
+// Shortest path on a TiledMazeGrid without holding the maze or the search state on the heap.
+// The BFS parent of every cell is one 4-bit value (the direction it was entered in, 0 = not seen
+// yet) kept in a scratch file of the same tile layout and paged through its own TileCache, so
+// the heap only holds the cached tiles and the frontier.
+//
+// Search order: the BFS still runs layer by layer (so the path is a shortest one), but every
+// layer is sorted by (tile, cell in tile) before it is expanded. All the cells of one tile are
+// then handled together, with the tile's wall bits and parents fetched once; only cells on a tile
+// border look at the neighbouring tile through the cache. In a maze the frontier is a few thin fronts that move
+// slowly across the tiles, so nearly every lookup hits the cache.
+//
+// Cells on the frontier are packed as (tile << 32 | cell in tile), which fits any maze up to
+// 2^31 tiles, so 100 000 x 100 000 and beyond work even though their cell count overflows an int.
+//
+// 100 000 x 100 000 with 1024 x 1024 tiles: 1.25 GB of walls and 5 GB of (sparse) scratch on disk;
+// on a 2 GB heap give the solver about 1 GB for parent tiles and the maze about 400 MB for walls.
+public class TiledSolver implements AutoCloseable {
+    private static final int NOT_SEEN = 0;
+    private static final int START = 5; // parent value of the start cell, 1-4 = DIRECTIONS index + 1
+
+    private final long cacheBytes;
+    private final Path scratchDir;
+    private FileChannel scratch;
+    private TileCache parents;
+    private TiledMazeGrid grid;
+    private long[] frontier = new long[1024];
+    private long[] next = new long[1024];
+    private int nextSize;
+    private long steps = -1;
+    private long visitedCount;
+    private long expandedCount;
+    private int maxFrontier;
+
+    // cacheBytes is the budget for parent tiles; scratch files go into the system temp directory
+    public TiledSolver(long cacheBytes) {
+        this(cacheBytes, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    public TiledSolver(long cacheBytes, Path scratchDir) {
+        this.cacheBytes = cacheBytes;
+        this.scratchDir = scratchDir;
+    }
+
+    // returns the length of the shortest path in steps, -1 if there is none
+    public long solve(TiledMazeGrid grid) throws IOException {
+        close();
+        this.grid = grid;
+        steps = -1;
+        visitedCount = 0;
+        expandedCount = 0;
+        maxFrontier = 0;
+        if (grid.startRow() < 0 || grid.endRow() < 0
+                || !grid.isOpen(grid.startRow(), grid.startCol()) || !grid.isOpen(grid.endRow(), grid.endCol())) {
+            return -1; // invalid maze
+        }
+
+        Path file = Files.createTempFile(scratchDir, "maze-parents", ".tmp");
+        scratch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE, StandardOpenOption.SPARSE);
+        int tileSize = grid.tileSize();
+        parents = new TileCache(scratch, 0, TiledMazeGrid.tileWords(tileSize) * 4, cacheBytes);
+
+        long start = pack(grid.startRow(), grid.startCol());
+        long end = pack(grid.endRow(), grid.endCol());
+        setParent(parents.getForWrite(tileOfPacked(start)), (int) start, START);
+        visitedCount = 1;
+        if (start == end) {
+            steps = 0;
+            return steps;
+        }
+
+        int frontierSize = 1;
+        frontier[0] = start;
+        long layer = 0;
+        while (frontierSize > 0) {
+            layer++;
+            nextSize = 0;
+            // tile by tile, row-major inside each tile
+            Arrays.sort(frontier, 0, frontierSize);
+            if (expandLayer(frontierSize, end)) {
+                steps = layer;
+                return steps;
+            }
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize;
+            if (frontierSize > maxFrontier) maxFrontier = frontierSize;
+        }
+        return -1; // no path found
+    }
+
+    // expands one sorted layer into next; true as soon as the end cell is reached
+    private boolean expandLayer(int frontierSize, long end) {
+        int tileSize = grid.tileSize();
+        int tilesAcross = grid.tilesAcross();
+        int tilesDown = grid.tilesDown();
+        int currentTile = -1;
+        long[] walls = null;
+        long[] seen = null;
+        int tileRow = 0;
+        int tileCol = 0;
+
+        for (int i = 0; i < frontierSize; i++) {
+            long cell = frontier[i];
+            int tile = tileOfPacked(cell);
+            if (tile != currentTile) {
+                // held while the tile's cells are expanded; border cells touch at most the four
+                // neighbouring tiles, which the cache allows for
+                currentTile = tile;
+                walls = grid.tile(tile);
+                seen = parents.getForWrite(tile);
+                tileRow = tile / tilesAcross;
+                tileCol = tile - tileRow * tilesAcross;
+            }
+            if ((++expandedCount & (GridSolver.CANCEL_CHECK_INTERVAL - 1)) == 0) GridSolver.checkCancelled();
+
+            int offset = (int) cell;
+            int row = offset / tileSize;
+            int col = offset - row * tileSize;
+            boolean found;
+            // up, right, down, left (parent values 1-4); over a border into the neighbouring tile
+            if (row > 0) {
+                found = visit(walls, seen, tile, offset - tileSize, 1, end);
+            } else {
+                found = tileRow > 0 && visitOther(tile - tilesAcross, offset + (tileSize - 1) * tileSize, 1, end);
+            }
+            if (col + 1 < tileSize) {
+                found |= visit(walls, seen, tile, offset + 1, 2, end);
+            } else {
+                found |= tileCol + 1 < tilesAcross && visitOther(tile + 1, offset - (tileSize - 1), 2, end);
+            }
+            if (row + 1 < tileSize) {
+                found |= visit(walls, seen, tile, offset + tileSize, 3, end);
+            } else {
+                found |= tileRow + 1 < tilesDown && visitOther(tile + tilesAcross, offset - (tileSize - 1) * tileSize, 3, end);
+            }
+            if (col > 0) {
+                found |= visit(walls, seen, tile, offset - 1, 4, end);
+            } else {
+                found |= tileCol > 0 && visitOther(tile - 1, offset + tileSize - 1, 4, end);
+            }
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // a neighbour in another tile, fetched through the caches
+    private boolean visitOther(int tile, int offset, int parent, long end) {
+        return visit(grid.tile(tile), parents.getForWrite(tile), tile, offset, parent, end);
+    }
+
+    // marks an open, unseen cell and adds it to the next layer; true if it is the end
+    private boolean visit(long[] walls, long[] seen, int tile, int offset, int parent, long end) {
+        if ((walls[offset >>> 6] & (1L << offset)) == 0 || parentOf(seen, offset) != NOT_SEEN) {
+            return false; // wall (or outside the maze) or already seen
+        }
+        setParent(seen, offset, parent);
+        visitedCount++;
+        long packed = (long) tile << 32 | offset;
+        if (packed == end) {
+            return true;
+        }
+        if (nextSize == next.length) {
+            next = Arrays.copyOf(next, next.length * 2);
+        }
+        next[nextSize++] = packed;
+        return false;
+    }
+
+    /* PATH */
+
+    // walks the path from the end back to the start, calling the visitor for every cell
+    // (end first); the path never has to fit in memory
+    public void forEachCellFromEnd(CellVisitor visitor) {
+        if (steps < 0) {
+            throw new IllegalStateException("no path: solve a maze with a path first");
+        }
+        int tileSize = grid.tileSize();
+        int row = grid.endRow();
+        int col = grid.endCol();
+        while (true) {
+            visitor.visit(row, col);
+            int offset = (row % tileSize) * tileSize + col % tileSize;
+            int parent = parentOf(parents.get(grid.tileOf(row, col)), offset);
+            if (parent == START) {
+                return;
+            }
+            row -= MazeSolver.DIRECTIONS[parent - 1][0];
+            col -= MazeSolver.DIRECTIONS[parent - 1][1];
+        }
+    }
+
+    // the path as Positions (with parent links, like a solver's result), for paths that fit on the heap
+    public List<MazeSolver.Position> toPositions() {
+        if (steps < 0) {
+            return null;
+        }
+        if (steps >= Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("path of " + steps + " steps is too long for a list");
+        }
+        List<MazeSolver.Position> path = new ArrayList<>((int) steps + 1);
+        forEachCellFromEnd((row, col) -> path.add(new MazeSolver.Position(row, col)));
+        Collections.reverse(path);
+        for (int i = 1; i < path.size(); i++) {
+            path.get(i).parent = path.get(i - 1);
+        }
+        return path;
+    }
+
+    @FunctionalInterface
+    public interface CellVisitor {
+        void visit(int row, int col);
+    }
+
+    /* HELPERS */
+
+    private long pack(int row, int col) {
+        int tileSize = grid.tileSize();
+        return (long) grid.tileOf(row, col) << 32 | (row % tileSize) * tileSize + col % tileSize;
+    }
+
+    private static int tileOfPacked(long cell) {
+        return (int) (cell >>> 32);
+    }
+
+    // 4 bits per cell, 16 cells per long
+    private static int parentOf(long[] words, int offset) {
+        return (int) (words[offset >>> 4] >>> ((offset & 15) << 2)) & 15;
+    }
+
+    private static void setParent(long[] words, int offset, int parent) {
+        words[offset >>> 4] |= (long) parent << ((offset & 15) << 2);
+    }
+
+    /* STATISTICS */
+
+    // steps of the last path found, -1 if there was none
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getVisitedCount() {
+        return visitedCount;
+    }
+
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    public int getMaxFrontier() {
+        return maxFrontier;
+    }
+
+    // null before the first solve
+    public TileCache getParentCache() {
+        return parents;
+    }
+
+    // drops the scratch file of the last solve (its path can no longer be walked)
+    @Override
+    public void close() throws IOException {
+        parents = null;
+        if (scratch != null) {
+            scratch.close();
+            scratch = null;
+        }
+    }
+
+    /* COMMAND LINE */
+
+    // java MazeSolver tiled [--cache-mb N] <maze.tiles>
+    // java MazeSolver tiled --convert <maze file> <maze.tiles> [--tile N]
+    public static void main(String[] args) throws IOException {
+        long cacheMb = 1024;
+        int tileSize = TiledMazeGrid.DEFAULT_TILE_SIZE;
+        List<String> files = new ArrayList<>();
+        boolean convert = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cache-mb":
+                    cacheMb = Long.parseLong(args[++i]);
+                    break;
+                case "--tile":
+                    tileSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--convert":
+                    convert = true;
+                    break;
+                default:
+                    files.add(args[i]);
+            }
+        }
+        if (files.size() != (convert ? 2 : 1)) {
+            System.err.println("Usage: java MazeSolver tiled [--cache-mb N] <maze.tiles>\n"
+                    + "       java MazeSolver tiled --convert <maze file> <maze.tiles> [--tile N]");
+            System.exit(2);
+        }
+
+        if (convert) {
+            TiledMazeGrid.write(MazeFiles.read(Paths.get(files.get(0))), Paths.get(files.get(1)), tileSize);
+            return;
+        }
+
+        // a third of the budget for wall tiles, the rest for parents (4 bits per cell instead of 1)
+        long cacheBytes = cacheMb << 20;
+        try (TiledMazeGrid grid = TiledMazeGrid.open(Paths.get(files.get(0)), cacheBytes / 3);
+             TiledSolver solver = new TiledSolver(cacheBytes - cacheBytes / 3)) {
+            long startTime = System.nanoTime();
+            long steps = solver.solve(grid);
+            double millis = (System.nanoTime() - startTime) / 1e6;
+            System.out.println(steps < 0 ? "No path found" : "Path length: " + steps + " steps");
+            System.out.printf(Locale.ROOT, "Maze: %d x %d, %d x %d tiles of %d%n", grid.rows(), grid.cols(),
+                    grid.tilesDown(), grid.tilesAcross(), grid.tileSize());
+            System.out.printf(Locale.ROOT, "Visited: %d cells, largest layer %d, time %.1f ms%n",
+                    solver.getVisitedCount(), solver.getMaxFrontier(), millis);
+            System.out.println("Wall tiles: " + grid.cache());
+            System.out.println("Parent tiles: " + solver.getParentCache());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* VIRTUAL THREADS */
+// Executors that start one virtual thread per task when the JVM has them (Java 21+). The build
+// still targets Java 17, so the factory method is looked up at runtime; on an older JVM the
+// same calls fall back to a cached pool of daemon platform threads.
+final class VirtualThreads {
+    private static final MethodHandle NEW_EXECUTOR = findVirtualExecutor();
+
+    private VirtualThreads() {
+    }
+
+    private static MethodHandle findVirtualExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return null; // Java 17-20
+        }
+    }
+
+    // true if newPerTaskExecutor really uses virtual threads on this JVM
+    static boolean available() {
+        return NEW_EXECUTOR != null;
+    }
+
+    // one new (virtual) thread per submitted task; name is used for the fallback platform threads
+    static ExecutorService newPerTaskExecutor(String name) {
+        if (NEW_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_EXECUTOR.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("could not create a virtual thread executor", e);
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true); // never keeps the app alive on its own
+            return thread;
+        });
+    }
+}
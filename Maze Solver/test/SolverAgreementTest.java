@@ -0,0 +1,143 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/* SOLVER AGREEMENT */
+// Every solver against plain BFS on random grids with open areas and loops (a perfect maze has
+// only one path, so it can't tell a shortest path from any other): the shortest-path solvers must
+// find a path of the same length, DFS and greedy any valid path, and all of them must agree on
+// whether there is a path at all.
+class SolverAgreementTest {
+    private static final Set<Algorithm> ANY_PATH = EnumSet.of(Algorithm.DFS, Algorithm.GREEDY);
+    private static final int GRIDS = 600;
+
+    @Test
+    void everyAlgorithmAgreesWithBfs() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < GRIDS; i++) {
+            char[][] maze = randomMaze(random);
+            MazeGrid grid = new CharMazeGrid(maze);
+            int shortest = bfsDistance(maze);
+            for (Algorithm algorithm : Algorithm.values()) {
+                check(algorithm.name() + " on grid " + i, algorithm.newSolver(), grid, shortest, ANY_PATH.contains(algorithm));
+            }
+            // the parallel layers themselves (the default threshold hands small mazes to BFS)
+            check("parallel layers on grid " + i, new ParallelBfsSolver(4, 0), grid, shortest, false);
+        }
+    }
+
+    // admissible but not consistent: exact on some cells and 0 on the rest, so a closed cell can
+    // be reached more cheaply later and A* has to reopen it to stay optimal
+    @Test
+    void aStarStaysOptimalWithInconsistentHeuristic() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < GRIDS; i++) {
+            char[][] maze = randomMaze(random);
+            int[] toEnd = distancesFromEnd(maze);
+            int cols = maze[0].length;
+            boolean[] exact = new boolean[toEnd.length];
+            for (int cell = 0; cell < exact.length; cell++) {
+                exact[cell] = random.nextInt(3) == 0;
+            }
+            Heuristic patchy = (row, col, endRow, endCol) -> {
+                int cell = row * cols + col;
+                return exact[cell] && toEnd[cell] >= 0 ? toEnd[cell] : 0;
+            };
+            check("A* with patchy heuristic on grid " + i, new AStarSolver(patchy, false),
+                    new CharMazeGrid(maze), bfsDistance(maze), false);
+        }
+    }
+
+    private static void check(String what, GridSolver solver, MazeGrid grid, int shortest, boolean anyPath) {
+        List<MazeSolver.Position> path = solver.solve(grid);
+        if (shortest < 0) {
+            assertNull(path, what + ": found a path where there is none");
+            return;
+        }
+        assertNotNull(path, what + ": no path found");
+        int cols = grid.cols();
+        assertEquals(grid.start(), path.get(0).row * cols + path.get(0).col, what + ": doesn't begin at S");
+        MazeSolver.Position last = path.get(path.size() - 1);
+        assertEquals(grid.end(), last.row * cols + last.col, what + ": doesn't end at E");
+        for (int i = 1; i < path.size(); i++) {
+            MazeSolver.Position a = path.get(i - 1);
+            MazeSolver.Position b = path.get(i);
+            assertEquals(1, Math.abs(a.row - b.row) + Math.abs(a.col - b.col), what + ": step " + i + " jumps");
+            assertTrue(grid.isOpen(b.row * cols + b.col), what + ": step " + i + " goes through a wall");
+        }
+        if (anyPath) {
+            assertTrue(path.size() - 1 >= shortest, what + ": shorter than the shortest path");
+        } else {
+            assertEquals(shortest, path.size() - 1, what + ": not a shortest path");
+        }
+    }
+
+    // 2 x 2 up to 40 x 40 with 0-45% walls, S and E on random open cells
+    private static char[][] randomMaze(SplittableRandom random) {
+        int rows = 2 + random.nextInt(39);
+        int cols = 2 + random.nextInt(39);
+        int wallPercent = random.nextInt(46);
+        char[][] maze = new char[rows][cols];
+        for (char[] row : maze) {
+            for (int col = 0; col < cols; col++) {
+                row[col] = random.nextInt(100) < wallPercent ? MazeSolver.WALL : MazeSolver.PATH;
+            }
+        }
+        int start = random.nextInt(rows * cols);
+        int end = random.nextInt(rows * cols - 1);
+        if (end >= start) end++;
+        maze[start / cols][start % cols] = MazeSolver.START;
+        maze[end / cols][end % cols] = MazeSolver.END;
+        return maze;
+    }
+
+    // steps from S to E, -1 if E can't be reached
+    private static int bfsDistance(char[][] maze) {
+        int cols = maze[0].length;
+        int[] toEnd = distancesFromEnd(maze);
+        for (int cell = 0; cell < toEnd.length; cell++) {
+            if (maze[cell / cols][cell % cols] == MazeSolver.START) return toEnd[cell];
+        }
+        throw new IllegalStateException("no start");
+    }
+
+    // steps from every cell to E (-1 for walls and cells that can't reach it)
+    private static int[] distancesFromEnd(char[][] maze) {
+        int rows = maze.length;
+        int cols = maze[0].length;
+        int[] distance = new int[rows * cols];
+        Arrays.fill(distance, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int cell = 0; cell < distance.length; cell++) {
+            if (maze[cell / cols][cell % cols] == MazeSolver.END) {
+                distance[cell] = 0;
+                queue.add(cell);
+            }
+        }
+        int[][] steps = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            int row = cell / cols;
+            int col = cell % cols;
+            for (int[] step : steps) {
+                int r = row + step[0];
+                int c = col + step[1];
+                if (r < 0 || c < 0 || r >= rows || c >= cols || maze[r][c] == MazeSolver.WALL) continue;
+                int next = r * cols + c;
+                if (distance[next] >= 0) continue;
+                distance[next] = distance[cell] + 1;
+                queue.add(next);
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,28 @@
+package mazesolver.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/* BENCHMARK LAUNCHER */
+// Same command line as the normal JMH launcher (e.g. "SolverBenchmark -p size=1001"),
+// but the GC profiler is always on so every run also reports the allocation rate (gc.alloc.rate.norm).
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list(); // "-l": only print the benchmark names
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
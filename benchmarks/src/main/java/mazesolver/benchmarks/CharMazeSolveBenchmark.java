@@ -0,0 +1,51 @@
+package mazesolver.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* CHAR[][] SOLVER BENCHMARKS */
+// The public MazeSolver.solveMazeWithQueue / solveMazeWithStack entry points on a char[][] maze,
+// the way MazeSolverApp calls them. The maze is generated once per trial and never modified.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CharMazeSolveBenchmark {
+    @Param({"101", "1001", "4001"})
+    int size;
+
+    @Param({"42", "1337"})
+    long seed;
+
+    private char[][] maze;
+
+    @Setup(Level.Trial)
+    public void generate() throws Throwable {
+        maze = (char[][]) MazeSolverHandles.GENERATE_MAZE.invokeExact(size, size, seed);
+    }
+
+    @Benchmark
+    public List<?> solveMazeWithQueue() throws Throwable {
+        return (List<?>) MazeSolverHandles.SOLVE_WITH_QUEUE.invokeExact(maze);
+    }
+
+    @Benchmark
+    public List<?> solveMazeWithStack() throws Throwable {
+        return (List<?>) MazeSolverHandles.SOLVE_WITH_STACK.invokeExact(maze);
+    }
+}
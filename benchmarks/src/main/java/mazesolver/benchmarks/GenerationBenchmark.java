@@ -0,0 +1,49 @@
+package mazesolver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* MAZE GENERATION BENCHMARKS */
+// Time (and, with the GC profiler, allocation) of generating a size x size maze from a fixed seed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GenerationBenchmark {
+    @Param({"101", "1001", "4001"})
+    int size;
+
+    @Param({"42", "1337"})
+    long seed;
+
+    // MazeSolver.generateMaze: packed grid converted to char[][]
+    @Benchmark
+    public char[][] generateMaze() throws Throwable {
+        return (char[][]) MazeSolverHandles.GENERATE_MAZE.invokeExact(size, size, seed);
+    }
+
+    // MazeSolver.generateGrid: packed grid only
+    @Benchmark
+    public Object generateGrid() throws Throwable {
+        return (Object) MazeSolverHandles.GENERATE_GRID.invokeExact(size, size, seed);
+    }
+
+    // MazeSolver.generateGridParallel: regions carved on every core (sequential below about 1000 x 1000)
+    @Benchmark
+    public Object generateGridParallel() throws Throwable {
+        return (Object) MazeSolverHandles.GENERATE_PARALLEL.invokeExact(size, size, seed,
+                Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,74 @@
+package mazesolver.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/* BRIDGE TO THE MAZE SOLVER CLASSES */
+// The maze solver classes live in the default package so they can be run straight from an IDE,
+// but JMH only accepts benchmarks in a named package, and named packages can't import from the
+// default one. The benchmarks call them through these method handles instead; kept in static
+// final fields, the JIT inlines them like normal calls.
+final class MazeSolverHandles {
+    static final MethodHandle GENERATE_MAZE;    // (int rows, int cols, long seed) -> char[][]
+    static final MethodHandle GENERATE_GRID;    // (int rows, int cols, long seed) -> BitMazeGrid
+    static final MethodHandle GENERATE_PARALLEL; // (int rows, int cols, long seed, int parallelism) -> BitMazeGrid
+    static final MethodHandle SOLVE_WITH_QUEUE; // (char[][] maze) -> List<Position>
+    static final MethodHandle SOLVE_WITH_STACK; // (char[][] maze) -> List<Position>
+    static final MethodHandle SOLVE;            // (GridSolver solver, MazeGrid grid) -> List<Position>
+    static final MethodHandle NEW_PATH_INDEX;   // (MazeGrid grid) -> PathIndex
+    static final MethodHandle INDEX_PATH;       // (PathIndex index, int from, int to) -> List<Position>
+    static final MethodHandle INDEX_DISTANCE;   // (PathIndex index, int from, int to) -> int
+    static final MethodHandle IS_OPEN;          // (MazeGrid grid, int cell) -> boolean
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> mazeSolver = Class.forName("MazeSolver");
+            Class<?> mazeGrid = Class.forName("MazeGrid");
+            Class<?> bitMazeGrid = Class.forName("BitMazeGrid");
+            Class<?> gridSolver = Class.forName("GridSolver");
+            Class<?> pathIndex = Class.forName("PathIndex");
+
+            GENERATE_MAZE = lookup.findStatic(mazeSolver, "generateMaze",
+                    MethodType.methodType(char[][].class, int.class, int.class, long.class));
+            GENERATE_GRID = lookup.findStatic(mazeSolver, "generateGrid",
+                            MethodType.methodType(bitMazeGrid, int.class, int.class, long.class))
+                    .asType(MethodType.methodType(Object.class, int.class, int.class, long.class));
+            GENERATE_PARALLEL = lookup.findStatic(mazeSolver, "generateGridParallel",
+                            MethodType.methodType(bitMazeGrid, int.class, int.class, long.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class, int.class, long.class, int.class));
+            SOLVE_WITH_QUEUE = lookup.findStatic(mazeSolver, "solveMazeWithQueue",
+                    MethodType.methodType(List.class, char[][].class));
+            SOLVE_WITH_STACK = lookup.findStatic(mazeSolver, "solveMazeWithStack",
+                    MethodType.methodType(List.class, char[][].class));
+            SOLVE = lookup.findVirtual(gridSolver, "solve", MethodType.methodType(List.class, mazeGrid))
+                    .asType(MethodType.methodType(List.class, Object.class, Object.class));
+            NEW_PATH_INDEX = lookup.findConstructor(pathIndex, MethodType.methodType(void.class, mazeGrid))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            INDEX_PATH = lookup.findVirtual(pathIndex, "path", MethodType.methodType(List.class, int.class, int.class))
+                    .asType(MethodType.methodType(List.class, Object.class, int.class, int.class));
+            INDEX_DISTANCE = lookup.findVirtual(pathIndex, "distance", MethodType.methodType(int.class, int.class, int.class))
+                    .asType(MethodType.methodType(int.class, Object.class, int.class, int.class));
+            IS_OPEN = lookup.findVirtual(mazeGrid, "isOpen", MethodType.methodType(boolean.class, int.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MazeSolverHandles() {
+    }
+
+    // Algorithm.valueOf(name).newSolver(); only called during setup, so plain reflection is fine
+    static Object newSolver(String algorithm) {
+        try {
+            Class<?> algorithms = Class.forName("Algorithm");
+            Object constant = algorithms.getMethod("valueOf", String.class).invoke(null, algorithm);
+            return algorithms.getMethod("newSolver").invoke(constant);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algorithm, e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package mazesolver.benchmarks;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* PATH INDEX QUERY BENCHMARKS */
+// Throughput of PathIndex queries between random pairs of open cells on one generated maze
+// (the index is built once per trial), plus the one-off cost of building the index.
+// Compare buildIndex with SolverBenchmark's BFS time to see after how many queries it pays off.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class QueryBenchmark {
+    private static final int QUERIES = 1024; // power of two
+
+    @Param({"101", "1001", "4001"})
+    int size;
+
+    @Param({"42"})
+    long seed;
+
+    private Object grid;
+    private Object index;
+    private final int[] from = new int[QUERIES];
+    private final int[] to = new int[QUERIES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() throws Throwable {
+        grid = (Object) MazeSolverHandles.GENERATE_GRID.invokeExact(size, size, seed);
+        index = (Object) MazeSolverHandles.NEW_PATH_INDEX.invokeExact(grid);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < QUERIES; i++) {
+            from[i] = randomOpenCell(random);
+            to[i] = randomOpenCell(random);
+        }
+    }
+
+    private int randomOpenCell(SplittableRandom random) throws Throwable {
+        while (true) {
+            int cell = random.nextInt(size * size);
+            if ((boolean) MazeSolverHandles.IS_OPEN.invokeExact(grid, cell)) return cell;
+        }
+    }
+
+    @Benchmark
+    public List<?> path() throws Throwable {
+        int i = next++ & (QUERIES - 1);
+        return (List<?>) MazeSolverHandles.INDEX_PATH.invokeExact(index, from[i], to[i]);
+    }
+
+    @Benchmark
+    public int distance() throws Throwable {
+        int i = next++ & (QUERIES - 1);
+        return (int) MazeSolverHandles.INDEX_DISTANCE.invokeExact(index, from[i], to[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Object buildIndex() throws Throwable {
+        return (Object) MazeSolverHandles.NEW_PATH_INDEX.invokeExact(grid);
+    }
+}
@@ -0,0 +1,52 @@
+package mazesolver.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* SOLVER BENCHMARKS */
+// Every Algorithm on a packed grid. One solver instance is reused across invocations,
+// the same way MazeSolver reuses its per-thread solvers, so scratch arrays are not counted.
+// New algorithms should be added to the "algorithm" list below.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SolverBenchmark {
+    @Param({"101", "1001", "4001"})
+    int size;
+
+    @Param({"42", "1337"})
+    long seed;
+
+    @Param({"BFS", "DFS", "PARALLEL_BFS", "BIT_PARALLEL_BFS", "BIDIRECTIONAL_BFS", "A_STAR", "GREEDY", "JUMP_POINT", "DIJKSTRA", "JUNCTION"})
+    String algorithm;
+
+    private Object grid;
+    private Object solver;
+
+    @Setup(Level.Trial)
+    public void generate() throws Throwable {
+        grid = (Object) MazeSolverHandles.GENERATE_GRID.invokeExact(size, size, seed);
+        solver = MazeSolverHandles.newSolver(algorithm);
+    }
+
+    @Benchmark
+    public List<?> solve() throws Throwable {
+        return (List<?>) MazeSolverHandles.SOLVE.invokeExact(solver, grid);
+    }
+}